@@ -0,0 +1,189 @@
+package bench;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Bridge to the game classes. They live in the unnamed package, which a
+ * named package cannot import, and JMH refuses benchmarks in the unnamed
+ * package. The handles are static final, so the JIT inlines them and the
+ * indirection does not show up in the numbers.
+ *
+ * @author 11a5h
+ */
+final class App {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+    private static final Class<?> MAZE = type("MazeGenerator");
+    private static final Class<?> ALGORITHM = type("MazeGenerator$Algorithm");
+    private static final Class<?> GRID = type("MazeGrid");
+    private static final Class<?> FINDER = type("PathFinder");
+    private static final Class<?> FINDER_MODE = type("PathFinder$Mode");
+    private static final Class<?> BATCH = type("BatchPathSolver");
+    private static final Class<?> QUERY = type("BatchPathSolver$Query");
+    private static final Class<?> BATCH_RESULT = type("BatchPathSolver$Result");
+    private static final Class<?> ASSETS = type("TileAssets");
+    private static final Class<?> LAYER = type("MazeLayer");
+    
+    private static final MethodHandle NEW_MAZE = constructor(MAZE, int.class, int.class, long.class, ALGORITHM);
+    private static final MethodHandle GET_GRID = virtual(MAZE, "getGrid", GRID);
+    private static final MethodHandle EXIT_ROW = virtual(MAZE, "getExitRow", int.class);
+    private static final MethodHandle EXIT_COL = virtual(MAZE, "getExitCol", int.class);
+    private static final MethodHandle IS_WALKABLE = virtual(GRID, "isWalkable", boolean.class, int.class, int.class);
+    private static final MethodHandle NEW_FINDER = constructor(FINDER, MAZE, int.class, int.class, int.class, int.class);
+    private static final MethodHandle FIND_PATH = virtual(FINDER, "findPath", List.class);
+    private static final MethodHandle SET_MODE = virtual(FINDER, "setMode", void.class, FINDER_MODE);
+    private static final MethodHandle EXPANDED_COUNT = virtual(FINDER, "getExpandedCount", int.class);
+    private static final MethodHandle NEW_BATCH = constructor(BATCH, MAZE);
+    private static final MethodHandle NEW_QUERY = constructor(QUERY, int.class, int.class, int.class, int.class);
+    private static final MethodHandle SOLVE = virtual(BATCH, "solve", BATCH_RESULT, List.class, ExecutorService.class, int.class);
+    private static final MethodHandle SOLVED_COUNT = virtual(BATCH_RESULT, "getSolvedCount", int.class);
+    private static final MethodHandle EXPANDED_TOTAL = virtual(BATCH_RESULT, "getExpandedCount", long.class);
+    private static final MethodHandle ASSETS_GET = staticMethod(ASSETS, "get", ASSETS);
+    private static final MethodHandle PAINT_MAZE = virtual(ASSETS, "paintMaze", void.class, Graphics.class, MAZE, int.class);
+    private static final MethodHandle NEW_LAYER = constructor(LAYER, ASSETS);
+    private static final MethodHandle PAINT_LAYER = virtual(LAYER, "paint", void.class, Graphics.class, MAZE, int.class, Color.class);
+    
+    private App() {
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object algorithm(String name) {
+        return Enum.valueOf((Class) ALGORITHM, name);
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object pathMode(String name) {
+        return Enum.valueOf((Class) FINDER_MODE, name);
+    }
+    
+    static Object newMaze(int size, long seed, Object algorithm) throws Throwable {
+        return NEW_MAZE.invokeExact(size, size, seed, algorithm);
+    }
+    
+    static Object grid(Object maze) throws Throwable {
+        return GET_GRID.invokeExact(maze);
+    }
+    
+    static int exitRow(Object maze) throws Throwable {
+        return (int) EXIT_ROW.invokeExact(maze);
+    }
+    
+    static int exitCol(Object maze) throws Throwable {
+        return (int) EXIT_COL.invokeExact(maze);
+    }
+    
+    static boolean isWalkable(Object grid, int row, int col) throws Throwable {
+        return (boolean) IS_WALKABLE.invokeExact(grid, row, col);
+    }
+    
+    static Object newFinder(Object maze, int startRow, int startCol, int exitRow, int exitCol, Object mode)
+            throws Throwable {
+        Object finder = NEW_FINDER.invokeExact(maze, startRow, startCol, exitRow, exitCol);
+        SET_MODE.invokeExact(finder, mode);
+        return finder;
+    }
+    
+    static List<?> findPath(Object finder) throws Throwable {
+        return (List<?>) FIND_PATH.invokeExact(finder);
+    }
+    
+    static int expandedCount(Object finder) throws Throwable {
+        return (int) EXPANDED_COUNT.invokeExact(finder);
+    }
+    
+    static Object newBatchSolver(Object maze) throws Throwable {
+        return NEW_BATCH.invokeExact(maze);
+    }
+    
+    static Object newQuery(int startRow, int startCol, int goalRow, int goalCol) throws Throwable {
+        return NEW_QUERY.invokeExact(startRow, startCol, goalRow, goalCol);
+    }
+    
+    static Object solve(Object solver, List<?> queries, ExecutorService executor, int workers) throws Throwable {
+        return SOLVE.invokeExact(solver, queries, executor, workers);
+    }
+    
+    static int solvedCount(Object result) throws Throwable {
+        return (int) SOLVED_COUNT.invokeExact(result);
+    }
+    
+    static long batchExpandedCount(Object result) throws Throwable {
+        return (long) EXPANDED_TOTAL.invokeExact(result);
+    }
+    
+    static Object assets() throws Throwable {
+        return ASSETS_GET.invokeExact();
+    }
+    
+    static void paintMaze(Object assets, Graphics g, Object maze, int cellSize) throws Throwable {
+        PAINT_MAZE.invokeExact(assets, g, maze, cellSize);
+    }
+    
+    static Object newLayer(Object assets) throws Throwable {
+        return NEW_LAYER.invokeExact(assets);
+    }
+    
+    static void paintLayer(Object layer, Graphics g, Object maze, int cellSize) throws Throwable {
+        PAINT_LAYER.invokeExact(layer, g, maze, cellSize, Color.BLACK);
+    }
+    
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, MethodType.methodType(void.class, params));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, params));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> returnType) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(owner, name, MethodType.methodType(returnType));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    /**
+     * Game types become Object; primitives, JDK types and void stay as they are.
+     */
+    private static MethodType erase(MethodType type) {
+        MethodType erased = type;
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isGameType(type.parameterType(i))) {
+                erased = erased.changeParameterType(i, Object.class);
+            }
+        }
+        if (isGameType(type.returnType())) {
+            erased = erased.changeReturnType(Object.class);
+        }
+        return erased;
+    }
+    
+    private static boolean isGameType(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BatchPathSolver.solve: one batch of random queries per operation, on a
+ * fixed pool of platform threads or on a virtual thread per worker. The
+ * score is the wall time of a whole batch; solved queries and expanded
+ * cells are counted next to it.
+ *
+ * @author 11a5h
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class BatchSolveBenchmark {
+    private static final int QUERIES = 512;
+    
+    @Param({"256", "1024"})
+    int size;
+    
+    @Param({"PLATFORM", "VIRTUAL"})
+    String threads;
+    
+    @Param({"1", "4"})
+    int workers;
+    
+    private Object solver;
+    private final List<Object> queries = new ArrayList<>();
+    private ExecutorService executor;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Object maze = App.newMaze(size, 42L, App.algorithm("DFS"));
+        solver = App.newBatchSolver(maze);
+        
+        Object grid = App.grid(maze);
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < QUERIES; i++) {
+            int[] cells = new int[4];
+            for (int j = 0; j < 4; j += 2) {
+                do {
+                    cells[j] = random.nextInt(size);
+                    cells[j + 1] = random.nextInt(size);
+                } while (!App.isWalkable(grid, cells[j], cells[j + 1]));
+            }
+            queries.add(App.newQuery(cells[0], cells[1], cells[2], cells[3]));
+        }
+        
+        executor = threads.equals("VIRTUAL")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(workers);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Solved {
+        public long queries;
+        public long expanded;
+        
+        @Setup(Level.Iteration)
+        public void clear() {
+            queries = 0;
+            expanded = 0;
+        }
+    }
+    
+    @Benchmark
+    public Object solve(Solved counters) throws Throwable {
+        Object result = App.solve(solver, queries, executor, workers);
+        counters.queries += App.solvedCount(result);
+        counters.expanded += App.batchExpandedCount(result);
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of building one maze, per algorithm and size.
+ *
+ * @author 11a5h
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class MazeGenerationBenchmark {
+    
+    @Param({"25", "50", "256", "1024", "4096"})
+    int size;
+    
+    @Param({"DFS", "ELLER", "PARALLEL"})
+    String algorithm;
+    
+    private Object algorithmValue;
+    private long seed;
+    
+    @Setup
+    public void setUp() {
+        algorithmValue = App.algorithm(algorithm);
+    }
+    
+    @Benchmark
+    public Object generate() throws Throwable {
+        return App.newMaze(size, seed++, algorithmValue);
+    }
+}
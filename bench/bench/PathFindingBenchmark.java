@@ -0,0 +1,95 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hint queries: PathFinder.findPath from random walkable cells to the exit,
+ * per search mode. Next to the throughput, JMH lists the cells the searches
+ * expanded and how many searches ran; expanded / searches is the cost of one
+ * query in cells.
+ *
+ * @author 11a5h
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class PathFindingBenchmark {
+    private static final int STARTS = 64;
+    
+    @Param({"25", "50", "256", "1024", "4096"})
+    int size;
+    
+    @Param({"ASTAR", "JPS", "BIDIRECTIONAL", "JUNCTIONS", "HIERARCHICAL"})
+    String mode;
+    
+    private Object maze;
+    private Object modeValue;
+    private int exitRow, exitCol;
+    private final int[] startRows = new int[STARTS];
+    private final int[] startCols = new int[STARTS];
+    private int next;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        maze = App.newMaze(size, 42L, App.algorithm("DFS"));
+        modeValue = App.pathMode(mode);
+        exitRow = App.exitRow(maze);
+        exitCol = App.exitCol(maze);
+        
+        Object grid = App.grid(maze);
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < STARTS; i++) {
+            int r, c;
+            do {
+                r = random.nextInt(size);
+                c = random.nextInt(size);
+            } while (!App.isWalkable(grid, r, c));
+            startRows[i] = r;
+            startCols[i] = c;
+        }
+        
+        // JUNCTIONS and HIERARCHICAL build their graph on first use; keep
+        // that out of the measured searches.
+        App.findPath(App.newFinder(maze, startRows[0], startCols[0], exitRow, exitCol, modeValue));
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expanded {
+        public long expanded;
+        public long searches;
+        
+        @Setup(Level.Iteration)
+        public void clear() {
+            expanded = 0;
+            searches = 0;
+        }
+    }
+    
+    @Benchmark
+    public Object findPath(Expanded counters) throws Throwable {
+        int i = next++ & (STARTS - 1);
+        Object finder = App.newFinder(maze, startRows[i], startCols[i], exitRow, exitCol, modeValue);
+        Object path = App.findPath(finder);
+        counters.expanded += App.expandedCount(finder);
+        counters.searches++;
+        return path;
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The maze layer of drawPanel.paintComponent, rendered offscreen: every tile
+ * drawn each time, and the cached MazeLayer blit that replaced it. Cells
+ * shrink with the maze so the target image stays at most 4096 pixels wide.
+ *
+ * @author 11a5h
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class RenderBenchmark {
+    
+    @Param({"25", "50", "256", "1024", "4096"})
+    int size;
+    
+    private Object assets;
+    private Object maze;
+    private Object layer;
+    private int cellSize;
+    private BufferedImage target;
+    private Graphics2D g;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        assets = App.assets();
+        maze = App.newMaze(size, 42L, App.algorithm("DFS"));
+        cellSize = Math.max(1, Math.min(14, 4096 / size));
+        target = new BufferedImage(size * cellSize, size * cellSize, BufferedImage.TYPE_INT_ARGB);
+        g = target.createGraphics();
+        layer = App.newLayer(assets);
+        App.paintLayer(layer, g, maze, cellSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage paintMaze() throws Throwable {
+        App.paintMaze(assets, g, maze, cellSize);
+        return target;
+    }
+    
+    @Benchmark
+    public BufferedImage paintCachedLayer() throws Throwable {
+        App.paintLayer(layer, g, maze, cellSize);
+        return target;
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Solves many (start, goal) queries on one maze in parallel. The maze is
+ * only read. The caller picks the executor, so the same batch can run on a
+ * fixed pool of platform threads or on virtual threads
+ * (Executors.newVirtualThreadPerTaskExecutor()).
+ *
+ * Each worker takes a SearchScratch from a pool kept by the solver rather
+ * than the thread-local one, so short-lived virtual threads still reuse
+ * buffers between batches. Workers claim queries in small blocks from a
+ * shared counter, which keeps them busy when some queries are much longer
+ * than others.
+ *
+ * @author 11a5h
+ */
+public class BatchPathSolver {
+    private static final int BLOCK = 16;
+
+    private final MazeGenerator maze;
+    private final MazeGrid grid;
+    private final ConcurrentLinkedQueue<SearchScratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private PathFinder.Mode mode = PathFinder.Mode.ASTAR;
+
+    public BatchPathSolver(MazeGenerator maze) {
+        this.maze = maze;
+        this.grid = maze.getGrid();
+    }
+
+    public BatchPathSolver(MazeGrid grid) {
+        this.maze = null;
+        this.grid = grid;
+    }
+
+    public PathFinder.Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(PathFinder.Mode mode) {
+        this.mode = mode;
+    }
+
+    public static class Query {
+        final int startRow, startCol;
+        final int goalRow, goalCol;
+
+        public Query(int startRow, int startCol, int goalRow, int goalCol) {
+            this.startRow = startRow;
+            this.startCol = startCol;
+            this.goalRow = goalRow;
+            this.goalCol = goalCol;
+        }
+    }
+
+    public static class Result {
+        private final int[][] paths;
+        private final long wallNanos;
+        private final long searchNanos;
+        private final long expanded;
+
+        Result(int[][] paths, long wallNanos, long searchNanos, long expanded) {
+            this.paths = paths;
+            this.wallNanos = wallNanos;
+            this.searchNanos = searchNanos;
+            this.expanded = expanded;
+        }
+
+        /**
+         * Path cells (flat, start first) for query i, in query order; empty
+         * if there was no path.
+         */
+        public int[] getPath(int i) {
+            return paths[i];
+        }
+
+        public int size() {
+            return paths.length;
+        }
+
+        public int getSolvedCount() {
+            int solved = 0;
+            for (int[] path : paths) {
+                if (path.length > 0) {
+                    solved++;
+                }
+            }
+            return solved;
+        }
+
+        /**
+         * Time from submitting the batch to the last result.
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Search time summed over all workers; divided by getWallNanos() it
+         * shows how many cores were kept busy.
+         */
+        public long getSearchNanos() {
+            return searchNanos;
+        }
+
+        public long getExpandedCount() {
+            return expanded;
+        }
+
+        public double getQueriesPerSecond() {
+            return wallNanos == 0 ? 0 : paths.length * 1e9 / wallNanos;
+        }
+    }
+
+    /**
+     * Solves every query with the given number of workers on the executor and
+     * waits for all of them. The executor is not shut down.
+     */
+    public Result solve(List<Query> queries, ExecutorService executor, int workers)
+            throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        int[][] paths = new int[queries.size()][];
+        AtomicInteger next = new AtomicInteger();
+
+        List<Callable<long[]>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(() -> work(queries, paths, next));
+        }
+
+        long searchNanos = 0;
+        long expanded = 0;
+        for (Future<long[]> future : executor.invokeAll(tasks)) {
+            long[] totals = future.get();
+            searchNanos += totals[0];
+            expanded += totals[1];
+        }
+        return new Result(paths, System.nanoTime() - started, searchNanos, expanded);
+    }
+
+    /**
+     * One worker: claims blocks of queries until none are left. Returns its
+     * search time and expanded cell count.
+     */
+    private long[] work(List<Query> queries, int[][] paths, AtomicInteger next) {
+        SearchScratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new SearchScratch();
+        }
+
+        long searchNanos = 0;
+        long expanded = 0;
+        try {
+            int from;
+            while ((from = next.getAndAdd(BLOCK)) < queries.size()) {
+                int to = Math.min(from + BLOCK, queries.size());
+                long blockStarted = System.nanoTime();
+                for (int i = from; i < to; i++) {
+                    Query query = queries.get(i);
+                    PathFinder finder = maze != null
+                            ? new PathFinder(maze, query.startRow, query.startCol, query.goalRow, query.goalCol)
+                            : new PathFinder(grid, query.startRow, query.startCol, query.goalRow, query.goalCol);
+                    finder.setMode(mode);
+                    finder.setKeepExplored(false);
+                    finder.search(scratch);
+                    paths[i] = finder.getPathCells();
+                    expanded += finder.getExpandedCount();
+                }
+                searchNanos += System.nanoTime() - blockStarted;
+            }
+        } finally {
+            scratchPool.offer(scratch);
+        }
+        return new long[]{searchNanos, expanded};
+    }
+}
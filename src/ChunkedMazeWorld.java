@@ -0,0 +1,147 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Endless maze made of CHUNK_SIZE x CHUNK_SIZE chunks. A chunk is carved the
+ * first time something looks at it, from the world seed and its chunk
+ * coordinates only, so an evicted chunk comes back identical.
+ * 
+ * Each chunk owns its last column and last row. They are walls except for
+ * one passage to the east neighbour and one to the south neighbour, which
+ * is enough to keep the whole world connected.
+ *
+ * @author 11a5h
+ */
+public class ChunkedMazeWorld {
+    public static final int CHUNK_SIZE = 32;
+    
+    private final long worldSeed;
+    private final int capacity;
+    private final int preloadRadius;
+    private final LinkedHashMap<Long, MazeGrid> chunks;
+    private long generatedChunks;
+    
+    public ChunkedMazeWorld(long worldSeed) {
+        this(worldSeed, 64, 1);
+    }
+    
+    public ChunkedMazeWorld(long worldSeed, int capacity, int preloadRadius) {
+        int window = 2 * preloadRadius + 1;
+        if (capacity < window * window) {
+            throw new IllegalArgumentException("capacity must hold the preload window: " + window * window);
+        }
+        this.worldSeed = worldSeed;
+        this.capacity = capacity;
+        this.preloadRadius = preloadRadius;
+        this.chunks = new LinkedHashMap<Long, MazeGrid>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MazeGrid> eldest) {
+                return size() > ChunkedMazeWorld.this.capacity;
+            }
+        };
+    }
+    
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+    
+    public boolean isWalkable(int row, int col) {
+        MazeGrid chunk = getChunk(Math.floorDiv(row, CHUNK_SIZE), Math.floorDiv(col, CHUNK_SIZE));
+        return chunk.isWalkable(Math.floorMod(row, CHUNK_SIZE), Math.floorMod(col, CHUNK_SIZE));
+    }
+    
+    /**
+     * Makes sure the chunks around the player are loaded. Call after every move.
+     */
+    public void updatePlayerPosition(int row, int col) {
+        int chunkRow = Math.floorDiv(row, CHUNK_SIZE);
+        int chunkCol = Math.floorDiv(col, CHUNK_SIZE);
+        
+        for (int dr = -preloadRadius; dr <= preloadRadius; dr++) {
+            for (int dc = -preloadRadius; dc <= preloadRadius; dc++) {
+                getChunk(chunkRow + dr, chunkCol + dc);
+            }
+        }
+        // Touch the player's own chunk last so it is the most recently used.
+        getChunk(chunkRow, chunkCol);
+    }
+    
+    /**
+     * Copies a window of the world into a standalone grid, e.g. for PathFinder.
+     * Cell (0, 0) of the result is world cell (top, left).
+     */
+    public MazeGrid region(int top, int left, int rows, int cols) {
+        MazeGrid region = new MazeGrid(rows, cols);
+        if (rows <= 0 || cols <= 0) {
+            return region;
+        }
+        
+        // Chunk by chunk, so each is fetched once even when the window is
+        // wider than the cache; a chunk row is a single word.
+        int firstChunkRow = Math.floorDiv(top, CHUNK_SIZE);
+        int lastChunkRow = Math.floorDiv(top + rows - 1, CHUNK_SIZE);
+        int firstChunkCol = Math.floorDiv(left, CHUNK_SIZE);
+        int lastChunkCol = Math.floorDiv(left + cols - 1, CHUNK_SIZE);
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            int chunkTop = chunkRow * CHUNK_SIZE;
+            int fromRow = Math.max(top, chunkTop);
+            int toRow = Math.min(top + rows, chunkTop + CHUNK_SIZE);
+            
+            for (int chunkCol = firstChunkCol; chunkCol <= lastChunkCol; chunkCol++) {
+                int chunkLeft = chunkCol * CHUNK_SIZE;
+                int fromCol = Math.max(left, chunkLeft);
+                int width = Math.min(left + cols, chunkLeft + CHUNK_SIZE) - fromCol;
+                long mask = (1L << width) - 1;
+                
+                long[] words = getChunk(chunkRow, chunkCol).words();
+                for (int r = fromRow; r < toRow; r++) {
+                    long run = (words[r - chunkTop] >>> (fromCol - chunkLeft)) & mask;
+                    if (run != 0) {
+                        region.orBits(r - top, fromCol - left, run);
+                    }
+                }
+            }
+        }
+        return region;
+    }
+    
+    public synchronized MazeGrid getChunk(int chunkRow, int chunkCol) {
+        long key = ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+        MazeGrid chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = generateChunk(key);
+            chunks.put(key, chunk);
+            generatedChunks++;
+        }
+        return chunk;
+    }
+    
+    public synchronized int getLoadedChunkCount() {
+        return chunks.size();
+    }
+    
+    public synchronized long getGeneratedChunkCount() {
+        return generatedChunks;
+    }
+    
+    private MazeGrid generateChunk(long key) {
+        // Spread the chunk key so neighbouring chunks get unrelated streams.
+        SplittableRandom random = new SplittableRandom(worldSeed ^ (key * 0x9E3779B97F4A7C15L));
+        MazeGrid chunk = new MazeGrid(CHUNK_SIZE, CHUNK_SIZE);
+        
+        // One chunk fits in a single tile, so this is the plain backtracker.
+        new ParallelMazeGenerator(chunk, random, ForkJoinPool.commonPool()).generate();
+        
+        int cells = CHUNK_SIZE / 2;
+        chunk.setWalkable(2 * random.nextInt(cells), CHUNK_SIZE - 1);
+        chunk.setWalkable(CHUNK_SIZE - 1, 2 * random.nextInt(cells));
+        return chunk;
+    }
+}
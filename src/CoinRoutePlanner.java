@@ -0,0 +1,404 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Shortest route from the player through a set of coins to the exit.
+ *
+ * Distances between the player, the coins and the exit come from one BFS per
+ * point, run in parallel. Up to EXACT_LIMIT coins the order is exact (bitmask
+ * DP over subsets); above that it is the best of nearest-neighbour tours
+ * started from every coin in parallel, each improved by 2-opt.
+ *
+ * The BFS runs borrow SearchScratch buffers from a pool that lives only as
+ * long as one plan() call. The parallel runs use common-pool threads, and a
+ * thread-local scratch would keep maze-sized arrays on them for good.
+ *
+ * @author 11a5h
+ */
+public class CoinRoutePlanner {
+    static final int EXACT_LIMIT = 14;
+
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    private final MazeGrid grid;
+    private final int cols;
+    private final PathCache pathCache;
+    private SearchListener listener;
+
+    public CoinRoutePlanner(MazeGrid grid) {
+        this(grid, null);
+    }
+
+    /**
+     * @param pathCache where legs between points are looked up and stored, or null
+     */
+    public CoinRoutePlanner(MazeGrid grid, PathCache pathCache) {
+        this.grid = grid;
+        this.cols = grid.getCols();
+        this.pathCache = pathCache;
+    }
+
+    /**
+     * Listener told about every cell the BFS runs expand, or null for none.
+     * The distance runs are parallel, so it must be thread-safe.
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    public static class Route {
+        private final List<Collectible> order;
+        private final int[] cells;
+        private final boolean exact;
+
+        Route(List<Collectible> order, int[] cells, boolean exact) {
+            this.order = order;
+            this.cells = cells;
+            this.exact = exact;
+        }
+
+        /**
+         * Coins in visiting order. Coins that cannot be reached are left out.
+         */
+        public List<Collectible> getOrder() {
+            return order;
+        }
+
+        /**
+         * Every cell of the route, player first and exit last.
+         */
+        public int[] getCells() {
+            return cells;
+        }
+
+        public int getLength() {
+            return Math.max(0, cells.length - 1);
+        }
+
+        public boolean isEmpty() {
+            return cells.length == 0;
+        }
+
+        /**
+         * True if the order is optimal, false if it came from the heuristic.
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        public void draw(Graphics g, int cols, int cellSize) {
+            g.setColor(new Color(255, 200, 0, 160));
+            for (int i = 1; i < cells.length - 1; i++) {
+                g.fillRect((cells[i] % cols) * cellSize, (cells[i] / cols) * cellSize, cellSize, cellSize);
+            }
+        }
+    }
+
+    /**
+     * Plans a route through the uncollected coins. Returns an empty route if
+     * the player or exit is a wall, or the exit cannot be reached.
+     */
+    public Route plan(int startRow, int startCol, List<Collectible> coins, int exitRow, int exitCol) {
+        if (!grid.isWalkable(startRow, startCol) || !grid.isWalkable(exitRow, exitCol)) {
+            return new Route(List.of(), new int[0], true);
+        }
+
+        List<Collectible> targets = new ArrayList<>();
+        for (Collectible coin : coins) {
+            if (!coin.isCollected() && grid.isWalkable(coin.getRow(), coin.getCol())) {
+                targets.add(coin);
+            }
+        }
+
+        // Points: 0 is the player, 1..k the coins, k + 1 the exit.
+        int[] points = new int[targets.size() + 2];
+        points[0] = startRow * cols + startCol;
+        for (int i = 0; i < targets.size(); i++) {
+            points[i + 1] = targets.get(i).getRow() * cols + targets.get(i).getCol();
+        }
+        points[points.length - 1] = exitRow * cols + exitCol;
+
+        ConcurrentLinkedQueue<SearchScratch> scratchPool = new ConcurrentLinkedQueue<>();
+        int[][] dist = distances(points, scratchPool);
+        int exit = points.length - 1;
+        if (dist[0][exit] < 0) {
+            return new Route(List.of(), new int[0], true);
+        }
+
+        // Coins cut off from the player are dropped; the rest share its component with the exit.
+        int[] reachable = IntStream.range(1, exit).filter(i -> dist[0][i] >= 0).toArray();
+        boolean exact = reachable.length <= EXACT_LIMIT;
+        int[] order = exact ? exactOrder(dist, reachable, exit) : heuristicOrder(dist, reachable, exit);
+
+        List<Collectible> visited = new ArrayList<>(order.length);
+        int[] cells = new int[tourLength(dist, order, exit) + 1];
+        int at = 0;
+        int from = 0;
+        SearchScratch scratch = borrow(scratchPool);
+        for (int i = 0; i <= order.length; i++) {
+            int to = i < order.length ? order[i] : exit;
+            if (i < order.length) {
+                visited.add(targets.get(to - 1));
+            }
+            at = appendLeg(scratch, points[from], points[to], cells, at);
+            from = to;
+        }
+        cells[at] = points[exit];
+        return new Route(visited, cells, exact);
+    }
+
+    /**
+     * Pairwise step counts between points, -1 where there is no path. One
+     * BFS per point except the exit, whose row is the transpose.
+     */
+    private int[][] distances(int[] points, ConcurrentLinkedQueue<SearchScratch> scratchPool) {
+        int n = points.length;
+        Map<Integer, int[]> pointsAt = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            int[] at = pointsAt.get(points[i]);
+            pointsAt.put(points[i], at == null ? new int[]{i} : append(at, i));
+        }
+
+        int[][] dist = new int[n][];
+        IntStream.range(0, n - 1).parallel().forEach(i -> {
+            int[] row = new int[n];
+            Arrays.fill(row, -1);
+            SearchScratch scratch = borrow(scratchPool);
+            bfs(scratch, points[i], -1, pointsAt, row);
+            scratchPool.offer(scratch);
+            dist[i] = row;
+        });
+
+        dist[n - 1] = new int[n];
+        for (int i = 0; i < n - 1; i++) {
+            dist[n - 1][i] = dist[i][n - 1];
+        }
+        return dist;
+    }
+
+    private static SearchScratch borrow(ConcurrentLinkedQueue<SearchScratch> scratchPool) {
+        SearchScratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new SearchScratch();
+    }
+
+    /**
+     * Breadth-first search from source. Fills row[p] with the distance to each
+     * point in pointsAt and stops once all are found, or stops at target if
+     * target is not -1. Distances and parents are left in scratch.g and
+     * scratch.parent; scratch.explored doubles as the queue.
+     */
+    private void bfs(SearchScratch scratch, int source, int target, Map<Integer, int[]> pointsAt, int[] row) {
+        scratch.beginBreadthFirst(grid.getRows() * cols);
+        int remaining = row == null ? 1 : row.length;
+        int head = 0;
+        scratch.markReached(source);
+        scratch.g[source] = 0;
+        scratch.parent[source] = -1;
+        scratch.recordExpanded(source);
+
+        while (head < scratch.exploredCount) {
+            int current = scratch.explored[head++];
+            if (listener != null) {
+                listener.onExpand(current);
+            }
+            if (current == target) {
+                return;
+            }
+            if (pointsAt != null) {
+                int[] at = pointsAt.get(current);
+                if (at != null) {
+                    for (int p : at) {
+                        row[p] = scratch.g[current];
+                    }
+                    remaining -= at.length;
+                    if (remaining == 0) {
+                        return;
+                    }
+                }
+            }
+
+            int r = current / cols;
+            int c = current - r * cols;
+            for (int d = 0; d < 4; d++) {
+                int next = current + DR[d] * cols + DC[d];
+                if (grid.isWalkable(r + DR[d], c + DC[d]) && !scratch.isSeen(next)) {
+                    scratch.markReached(next);
+                    scratch.g[next] = scratch.g[current] + 1;
+                    scratch.parent[next] = current;
+                    scratch.recordExpanded(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the cells from 'from' up to, not including, 'to' into out at 'at'.
+     */
+    private int appendLeg(SearchScratch scratch, int from, int to, int[] out, int at) {
+        int[] leg = pathCache != null ? pathCache.get(grid, from, to) : null;
+        if (leg == null) {
+            int version = grid.getVersion();
+            bfs(scratch, from, to, null, null);
+            leg = new int[scratch.g[to] + 1];
+            int cell = to;
+            for (int i = leg.length - 1; i >= 0; i--) {
+                leg[i] = cell;
+                cell = scratch.parent[cell];
+            }
+            if (pathCache != null) {
+                pathCache.put(grid, version, from, to, leg);
+            }
+        }
+        System.arraycopy(leg, 0, out, at, leg.length - 1);
+        return at + leg.length - 1;
+    }
+
+    /**
+     * Held-Karp: best[mask][j] is the shortest walk from the player through the
+     * coins in mask, ending at coin j.
+     */
+    private static int[] exactOrder(int[][] dist, int[] coins, int exit) {
+        int k = coins.length;
+        if (k == 0) {
+            return coins;
+        }
+        int full = (1 << k) - 1;
+        int[][] best = new int[1 << k][k];
+        int[][] previous = new int[1 << k][k];
+        for (int[] row : best) {
+            Arrays.fill(row, Integer.MAX_VALUE);
+        }
+        for (int j = 0; j < k; j++) {
+            best[1 << j][j] = dist[0][coins[j]];
+            previous[1 << j][j] = -1;
+        }
+
+        for (int mask = 1; mask <= full; mask++) {
+            for (int j = 0; j < k; j++) {
+                int length = best[mask][j];
+                if (length == Integer.MAX_VALUE) {
+                    continue;
+                }
+                int[] fromJ = dist[coins[j]];
+                for (int next = 0; next < k; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int nextMask = mask | (1 << next);
+                    int candidate = length + fromJ[coins[next]];
+                    if (candidate < best[nextMask][next]) {
+                        best[nextMask][next] = candidate;
+                        previous[nextMask][next] = j;
+                    }
+                }
+            }
+        }
+
+        int last = 0;
+        for (int j = 1; j < k; j++) {
+            if (best[full][j] + dist[coins[j]][exit] < best[full][last] + dist[coins[last]][exit]) {
+                last = j;
+            }
+        }
+
+        int[] order = new int[k];
+        int mask = full;
+        for (int i = k - 1; i >= 0; i--) {
+            order[i] = coins[last];
+            int before = previous[mask][last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        return order;
+    }
+
+    /**
+     * Nearest-neighbour tour from each possible first coin, in parallel, each
+     * polished with 2-opt; the shortest wins.
+     */
+    private static int[] heuristicOrder(int[][] dist, int[] coins, int exit) {
+        return IntStream.range(0, coins.length).parallel()
+                .mapToObj(first -> twoOpt(dist, nearestNeighbour(dist, coins, first), exit))
+                .min((a, b) -> Integer.compare(tourLength(dist, a, exit), tourLength(dist, b, exit)))
+                .orElse(coins);
+    }
+
+    private static int[] nearestNeighbour(int[][] dist, int[] coins, int first) {
+        int k = coins.length;
+        int[] order = new int[k];
+        boolean[] used = new boolean[k];
+        order[0] = coins[first];
+        used[first] = true;
+
+        for (int i = 1; i < k; i++) {
+            int[] from = dist[order[i - 1]];
+            int closest = -1;
+            for (int j = 0; j < k; j++) {
+                if (!used[j] && (closest < 0 || from[coins[j]] < from[coins[closest]])) {
+                    closest = j;
+                }
+            }
+            order[i] = coins[closest];
+            used[closest] = true;
+        }
+        return order;
+    }
+
+    /**
+     * Reverses stretches of the tour while that shortens it. The player and
+     * the exit stay fixed at the two ends.
+     */
+    private static int[] twoOpt(int[][] dist, int[] order, int exit) {
+        int k = order.length;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < k - 1; i++) {
+                int before = i == 0 ? 0 : order[i - 1];
+                for (int j = i + 1; j < k; j++) {
+                    int after = j == k - 1 ? exit : order[j + 1];
+                    int delta = dist[before][order[j]] + dist[order[i]][after]
+                            - dist[before][order[i]] - dist[order[j]][after];
+                    if (delta < 0) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int swap = order[a];
+                            order[a] = order[b];
+                            order[b] = swap;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    private static int tourLength(int[][] dist, int[] order, int exit) {
+        int length = 0;
+        int from = 0;
+        for (int point : order) {
+            length += dist[from][point];
+            from = point;
+        }
+        return length + dist[from][exit];
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = value;
+        return grown;
+    }
+}
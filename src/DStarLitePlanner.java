@@ -0,0 +1,280 @@
+import java.util.Arrays;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Incremental replanning with D* Lite, for mazes whose cells open and close
+ * during play. The search runs backwards from the goal, so g[] holds each
+ * cell's distance to the goal. When cells change, only the cells whose
+ * distance actually changed are expanded again, and the player moving only
+ * shifts the heuristic (the km offset) instead of restarting the search.
+ *
+ * Register it with MazeGenerator.addChangeListener(), call moveStart() as the
+ * player moves and getPath() whenever the hint is needed. Cells are flat
+ * indices (row * cols + col).
+ *
+ * @author 11a5h
+ */
+public class DStarLitePlanner implements MazeChangeListener {
+    private static final int INF = Integer.MAX_VALUE / 2;
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    private final MazeGrid grid;
+    private final int rows, cols;
+    private final int goal;
+    private int start;
+    private int lastStart;
+    private int km;
+
+    private final int[] g;
+    private final int[] rhs;
+
+    // Indexed binary min-heap of cells keyed by (k1, k2) packed into one long.
+    private final long[] key;
+    private final int[] heap;
+    private final int[] heapPos;
+    private int heapSize;
+
+    private int lastExpanded;
+
+    public DStarLitePlanner(MazeGrid grid, int startRow, int startCol, int goalRow, int goalCol) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.start = startRow * cols + startCol;
+        this.lastStart = start;
+        this.goal = goalRow * cols + goalCol;
+
+        int cells = rows * cols;
+        g = new int[cells];
+        rhs = new int[cells];
+        key = new long[cells];
+        heap = new int[cells];
+        heapPos = new int[cells];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        Arrays.fill(heapPos, -1);
+
+        if (grid.isWalkable(goalRow, goalCol)) {
+            rhs[goal] = 0;
+            insert(goal, calculateKey(goal));
+        }
+    }
+
+    /**
+     * The player moved. Nothing is searched until the next getPath().
+     */
+    public synchronized void moveStart(int row, int col) {
+        start = row * cols + col;
+        km += heuristic(lastStart, start);
+        lastStart = start;
+    }
+
+    @Override
+    public synchronized void onCellChanged(int row, int col, boolean walkable) {
+        // Every edge touching the cell changed cost, so the cell and its
+        // neighbours need their rhs recomputed.
+        int cell = row * cols + col;
+        if (cell == goal) {
+            rhs[goal] = walkable ? 0 : INF;
+            updateQueue(goal);
+        }
+        else {
+            updateVertex(cell);
+        }
+        for (int d = 0; d < 4; d++) {
+            int r = row + DR[d], c = col + DC[d];
+            if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                updateVertex(r * cols + c);
+            }
+        }
+    }
+
+    /**
+     * Shortest path from the current start to the goal, both included, after
+     * repairing whatever changed since the last call; empty if there is none.
+     */
+    public synchronized int[] getPath() {
+        computeShortestPath();
+        if (g[start] >= INF || !grid.isWalkable(start / cols, start % cols)) {
+            return new int[0];
+        }
+
+        int[] path = new int[g[start] + 1];
+        path[0] = start;
+        int cell = start;
+        for (int i = 1; i < path.length; i++) {
+            int best = -1;
+            int row = cell / cols, col = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int r = row + DR[d], c = col + DC[d];
+                if (grid.isWalkable(r, c) && (best < 0 || g[r * cols + c] < g[best])) {
+                    best = r * cols + c;
+                }
+            }
+            path[i] = best;
+            cell = best;
+        }
+        return path;
+    }
+
+    /**
+     * Steps from the current start to the goal, or -1 if it cannot be reached.
+     */
+    public synchronized int getDistance() {
+        computeShortestPath();
+        return g[start] >= INF ? -1 : g[start];
+    }
+
+    /**
+     * Cells expanded by the last repair; small changes far from the path cost little.
+     */
+    public synchronized int getLastExpandedCount() {
+        return lastExpanded;
+    }
+
+    private void computeShortestPath() {
+        lastExpanded = 0;
+        while (heapSize > 0 && (key[heap[0]] < calculateKey(start) || rhs[start] != g[start])) {
+            int u = heap[0];
+            long oldKey = key[u];
+            long newKey = calculateKey(u);
+            lastExpanded++;
+
+            if (oldKey < newKey) {
+                // Key went stale while the start moved; requeue with the current one.
+                key[u] = newKey;
+                siftDown(heapPos[u]);
+            }
+            else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                remove(u);
+                updateNeighbours(u);
+            }
+            else {
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+    }
+
+    private void updateNeighbours(int cell) {
+        int row = cell / cols, col = cell % cols;
+        for (int d = 0; d < 4; d++) {
+            int r = row + DR[d], c = col + DC[d];
+            if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                updateVertex(r * cols + c);
+            }
+        }
+    }
+
+    private void updateVertex(int cell) {
+        if (cell != goal) {
+            int best = INF;
+            int row = cell / cols, col = cell % cols;
+            if (grid.isWalkable(row, col)) {
+                for (int d = 0; d < 4; d++) {
+                    int r = row + DR[d], c = col + DC[d];
+                    if (grid.isWalkable(r, c)) {
+                        best = Math.min(best, g[r * cols + c] + 1);
+                    }
+                }
+            }
+            rhs[cell] = Math.min(best, INF);
+        }
+        updateQueue(cell);
+    }
+
+    private void updateQueue(int cell) {
+        boolean queued = heapPos[cell] >= 0;
+        if (g[cell] != rhs[cell]) {
+            long newKey = calculateKey(cell);
+            if (queued) {
+                long oldKey = key[cell];
+                key[cell] = newKey;
+                if (newKey < oldKey) {
+                    siftUp(heapPos[cell]);
+                }
+                else {
+                    siftDown(heapPos[cell]);
+                }
+            }
+            else {
+                insert(cell, newKey);
+            }
+        }
+        else if (queued) {
+            remove(cell);
+        }
+    }
+
+    private long calculateKey(int cell) {
+        long m = Math.min(g[cell], rhs[cell]);
+        long k1 = m >= INF ? INF : m + heuristic(start, cell) + km;
+        return (k1 << 32) | m;
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    private void insert(int cell, long cellKey) {
+        key[cell] = cellKey;
+        heap[heapSize] = cell;
+        heapPos[cell] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void remove(int cell) {
+        int pos = heapPos[cell];
+        heapPos[cell] = -1;
+        int last = heap[--heapSize];
+        if (pos < heapSize) {
+            heap[pos] = last;
+            heapPos[last] = pos;
+            siftUp(pos);
+            siftDown(heapPos[last]);
+        }
+    }
+
+    private void siftUp(int pos) {
+        int cell = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (key[heap[parent]] <= key[cell]) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            heapPos[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = cell;
+        heapPos[cell] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int cell = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (key[heap[child]] >= key[cell]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            heapPos[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = cell;
+        heapPos[cell] = pos;
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Streaming maze generator (Eller's algorithm). Rows are produced top to
+ * bottom and only the set labels of the current row are kept, so memory
+ * is O(cols) however tall the maze is. The layout matches MazeGenerator:
+ * cells sit on even coordinates, odd coordinates are walls or passages,
+ * and the exit at (rows - 1, cols - 1) is always connected to the start.
+ *
+ * @author 11a5h
+ */
+public class EllerMazeGenerator {
+    
+    /**
+     * Receives each finished row in MazeGrid row layout. The array is reused
+     * for the next row, so copy it if it has to outlive the call.
+     */
+    public interface RowConsumer {
+        void acceptRow(int row, long[] words);
+    }
+    
+    private final int rows;
+    private final int cols;
+    private final int cellCols;
+    private final SplittableRandom random;
+    
+    private final long[] rowWords;
+    private final int[] set;
+    private final int[] parent;
+    private final int[] relabel;
+    private final boolean[] down;
+    private final boolean[] setHasDown;
+    
+    public EllerMazeGenerator(int rows, int cols, SplittableRandom random) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCols = (cols + 1) / 2;
+        this.random = random;
+        
+        this.rowWords = new long[(cols + 63) >>> 6];
+        this.set = new int[cellCols];
+        this.parent = new int[cellCols * 2];
+        this.relabel = new int[cellCols * 2];
+        this.down = new boolean[cellCols];
+        this.setHasDown = new boolean[cellCols * 2];
+    }
+    
+    public void generate(RowConsumer consumer) {
+        int cellRows = (rows + 1) / 2;
+        
+        for (int j = 0; j < cellCols; j++) {
+            set[j] = j;
+        }
+        
+        for (int i = 0; i < cellRows; i++) {
+            boolean lastRow = i == cellRows - 1;
+            
+            for (int k = 0; k < parent.length; k++) {
+                parent[k] = k;
+            }
+            
+            // Cell row: open every cell, then knock down walls between different sets.
+            Arrays.fill(rowWords, 0L);
+            for (int j = 0; j < cellCols; j++) {
+                open(2 * j);
+            }
+            for (int j = 0; j < cellCols - 1; j++) {
+                int a = find(set[j]);
+                int b = find(set[j + 1]);
+                if (a != b && (lastRow || random.nextBoolean())) {
+                    parent[b] = a;
+                    open(2 * j + 1);
+                }
+            }
+            if (lastRow && cols % 2 == 0) {
+                // Exit column sits beside the last cell column; open it on the exit side.
+                open(cols - 1);
+            }
+            consumer.acceptRow(2 * i, rowWords);
+            
+            if (lastRow) {
+                if (rows % 2 == 0) {
+                    Arrays.fill(rowWords, 0L);
+                    open(cols - 1);
+                    consumer.acceptRow(rows - 1, rowWords);
+                }
+                return;
+            }
+            
+            // Passage row: every set must continue downwards at least once.
+            Arrays.fill(setHasDown, false);
+            for (int j = 0; j < cellCols; j++) {
+                set[j] = find(set[j]);
+                down[j] = random.nextBoolean();
+                if (down[j]) {
+                    setHasDown[set[j]] = true;
+                }
+            }
+            for (int j = cellCols - 1; j >= 0; j--) {
+                if (!setHasDown[set[j]]) {
+                    down[j] = true;
+                    setHasDown[set[j]] = true;
+                }
+            }
+            
+            Arrays.fill(rowWords, 0L);
+            for (int j = 0; j < cellCols; j++) {
+                if (down[j]) {
+                    open(2 * j);
+                }
+            }
+            consumer.acceptRow(2 * i + 1, rowWords);
+            
+            // Cells that were not joined from above start their own set, then
+            // labels are packed back into [0, cellCols) for the next row.
+            Arrays.fill(relabel, -1);
+            int next = 0;
+            for (int j = 0; j < cellCols; j++) {
+                int label = down[j] ? set[j] : cellCols + j;
+                if (relabel[label] < 0) {
+                    relabel[label] = next++;
+                }
+                set[j] = relabel[label];
+            }
+        }
+    }
+    
+    private void open(int col) {
+        rowWords[col >>> 6] |= 1L << col;
+    }
+    
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
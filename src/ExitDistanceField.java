@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Shortest distance from every cell to the exit, from one BFS run when the
+ * field is built. The next step toward the exit is any neighbour one step
+ * closer, so it is read off the distances and needs no storage of its own.
+ *
+ * @author 11a5h
+ */
+public class ExitDistanceField {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    
+    private final int rows, cols;
+    private final int[] distance;
+    
+    public ExitDistanceField(MazeGrid grid, int exitRow, int exitCol) {
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.distance = new int[rows * cols];
+        Arrays.fill(distance, -1);
+        
+        if (!grid.isWalkable(exitRow, exitCol)) {
+            return;
+        }
+        
+        // The distance array doubles as the visited set; the queue is the only extra buffer.
+        int[] queue = new int[rows * cols];
+        int head = 0, tail = 0;
+        int exit = exitRow * cols + exitCol;
+        distance[exit] = 0;
+        queue[tail++] = exit;
+        
+        while (head < tail) {
+            int current = queue[head++];
+            int row = current / cols;
+            int col = current - row * cols;
+            
+            for (int d = 0; d < 4; d++) {
+                int newRow = row + DR[d];
+                int newCol = col + DC[d];
+                if (grid.isWalkable(newRow, newCol) && distance[newRow * cols + newCol] < 0) {
+                    distance[newRow * cols + newCol] = distance[current] + 1;
+                    queue[tail++] = newRow * cols + newCol;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Steps left to the exit, or -1 for walls and cells cut off from it.
+     */
+    public int getDistance(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return distance[row * cols + col];
+    }
+    
+    /**
+     * Flat index (row * cols + col) of the next cell toward the exit, or -1 if
+     * the cell is the exit itself or cannot reach it.
+     */
+    public int nextStep(int row, int col) {
+        int here = getDistance(row, col);
+        if (here <= 0) {
+            return -1;
+        }
+        for (int d = 0; d < 4; d++) {
+            if (getDistance(row + DR[d], col + DC[d]) == here - 1) {
+                return (row + DR[d]) * cols + col + DC[d];
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Shortest path to the exit as flat cell indices, both ends included.
+     * Empty if the exit cannot be reached.
+     */
+    public int[] pathFrom(int row, int col) {
+        int length = getDistance(row, col);
+        if (length < 0) {
+            return new int[0];
+        }
+        
+        int[] cells = new int[length + 1];
+        cells[0] = row * cols + col;
+        for (int i = 1; i <= length; i++) {
+            cells[i] = nextStep(cells[i - 1] / cols, cells[i - 1] % cols);
+        }
+        return cells;
+    }
+}
@@ -1,16 +1,17 @@
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Image;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Future;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.Timer;
-import javax.swing.ImageIcon;
 
 /*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
@@ -25,6 +26,15 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     private MazeGenerator maze;
     private Player player;
     private PathFinder pathFinder;
+    private CoinRoutePlanner.Route coinRoute;
+    private final HintSolver hintSolver = new HintSolver();
+    private Future<CoinRoutePlanner.Route> hintTask;
+    private long[] hintExplored;
+    // Bumped whenever a hint is abandoned, so late results from it are ignored.
+    private int hintRequest;
+    // Same for a level still being generated when the game is cleared.
+    private int levelRequest;
+    private static final long HINT_BUDGET_MILLIS = 2000;
     private int size = 50;
     private int cellSize = 60;
     private int score = 0;
@@ -41,11 +51,20 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     private String username;
     private int win = 0;
     private int level = 1;
+    private Level currentLevel;
+    private int optimalMoves;
+    private static final MazeCache mazeCache = new MazeCache(16);
+    private static final PathCache pathCache = new PathCache(1 << 20);
+    private final LevelPipeline levelPipeline = new LevelPipeline(size, level, 3, mazeCache);
     
-    private final String wallImgPath = "images/wall.png";
-    private final String floorImgPath = "images/floor.png";
-    private final String startImgPath = "";
-    private final String exitImgPath = "images/DoorWin.png";
+    // Endless mode: the visible maze is a window onto this world, cell (0, 0)
+    // of the window being world cell (worldTop, worldLeft).
+    private ChunkedMazeWorld world;
+    private int worldTop;
+    private int worldLeft;
+    
+    private TileAssets assets;
+    private MazeLayer mazeLayer;
     private final int PANEL_WIDTH = 700;
     private final int PANEL_HEIGHT = 720;
 
@@ -54,12 +73,23 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
      */
     public GameJFrame() { 
         initComponents();
+        loadAssets();
+        levelPipeline.start();
         setUpMazePanel();
         this.setLocationRelativeTo(null);
         this.addKeyListener(this);
         this.setFocusable(true);
     }
     
+    private void loadAssets() {
+        try {
+            assets = TileAssets.get();
+            mazeLayer = new MazeLayer(assets);
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+        }
+    }
+    
     private void setUpMazePanel() {
         mazePanel.removeAll();
         
@@ -70,35 +100,27 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
                 if (maze != null) {
-                    Image[][] tiles = maze.getTileImages();
+                    mazeLayer.paint(g, maze, cellSize, getBackground());
                     
-                    int rows = maze.getRows();
-                    int cols = maze.getCols();
-                    
-                    for (int r = 0; r < rows; r++) {
-                        for (int c = 0; c < cols; c++) {
-                            if (tiles[r][c] != null) {
-                                g.drawImage(tiles[r][c], c * cellSize, r * cellSize, cellSize, cellSize, null);
-                            }
-                        }
+                    if (hintExplored != null) {
+                        paintHintExplored(g);
                     }
                     
                     if (pathFinder != null) {
                         pathFinder.drawPathHighlights(g, cellSize);
                     }
                     
+                    if (coinRoute != null) {
+                        coinRoute.draw(g, maze.getCols(), cellSize);
+                    }
+                    
                     for (Collectible collectible : collectibles) {
                         collectible.draw(g, cellSize);
                     }
                     
                     if (gameStarted && player != null && !gameWon) {
-                        try {
-                            ClassLoader classLoader = getClass().getClassLoader();
-                            Image playerImg = new ImageIcon(classLoader.getResource(player.getCurrentImagePath())).getImage();
-                            g.drawImage(playerImg, player.getCol() * cellSize, player.getRow() * cellSize, cellSize, cellSize, null);
-                        } catch (Exception e) {
-                            System.err.println("Không thể tải hình ảnh player: " + e.getMessage());
-                        }
+                        g.drawImage(assets.getPlayerSprite(player.getCurrentDirection(), cellSize),
+                                player.getCol() * cellSize, player.getRow() * cellSize, null);
                     }
                 }
             }
@@ -111,6 +133,15 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         mazePanel.repaint();
     }
     
+    private void paintHintExplored(Graphics g) {
+        g.setColor(new Color(173, 216, 230, 128));
+        PathFinder.fillBits(g, hintExplored, maze.getCols(), cellSize, -1, -1);
+    }
+    
+    private void repaintCell(int row, int col) {
+        drawPanel.repaint(col * cellSize, row * cellSize, cellSize, cellSize);
+    }
+    
     private void calculateCellSize() {
         int cellWidth = PANEL_WIDTH / size;
         int cellHeight = PANEL_HEIGHT / size;
@@ -119,47 +150,11 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     
     private void generateCollectibles() {
         collectibles.clear();
-        int baseCollectibles = Math.max(3, size / 3);
-        int bonusCollectibles = (level - 1) * 2;
-        int numCollectibles = baseCollectibles + bonusCollectibles;
-
-        for (int i = 0; i < numCollectibles; i++) {
-            int r, c;
-            int attempts = 0;
-            do {
-                r = (int) (Math.random() * maze.getRows());
-                c = (int) (Math.random() * maze.getCols());
-                attempts++;
-                if (attempts > 100) {
-                    break;
-                }
-            } while ((r == maze.getStartRow() && c == maze.getStartCol())
-                    || (r == maze.getExitRow() && c == maze.getExitCol())
-                    || !isWalkablePosition(r, c)
-                    || isCollectibleAt(r, c));
-
-            if (isWalkablePosition(r, c)
-                    && !(r == maze.getStartRow() && c == maze.getStartCol())
-                    && !(r == maze.getExitRow() && c == maze.getExitCol())
-                    && !isCollectibleAt(r, c)) {
-                try {
-                    ClassLoader classLoader = getClass().getClassLoader();
-                    Image collectibleImg = new ImageIcon(classLoader.getResource("images/coin.png")).getImage();
-                    collectibles.add(new Collectible(r, c, collectibleImg, 5));
-                } catch (Exception e) {
-                    System.err.println("Không thể tải hình ảnh collectible: " + e.getMessage());
-                }
-            }
-        }
-    }
-    
-    private boolean isCollectibleAt(int row, int col) {
-        for (Collectible collectible : collectibles) {
-            if (collectible.isAt(row, col)) {
-                return true;
-            }
+        int cols = maze.getCols();
+        
+        for (int cell : currentLevel.getCollectibleCells()) {
+            collectibles.add(new Collectible(cell / cols, cell % cols, assets.getCoin(), 5));
         }
-        return false;
     }
     
     private boolean isWalkablePosition(int row, int col) {
@@ -168,8 +163,7 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
                 || col < 0 || col >= maze.getCols()) {
             return false;
         }
-        MazeGenerator.Cell[][] grid = maze.getGrid();
-        return grid[row][col].getValue() == 1;
+        return maze.getGrid().isWalkable(row, col);
     }
     
     private void startGameTimer() {
@@ -186,6 +180,11 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     }
     
     private void updateGameInfo() {
+        if (world != null) {
+            timeProgressBar.setValue(timeProgressBar.getMaximum());
+            timeProgressBar.setString("Vô tận: đã mở " + world.getGeneratedChunkCount() + " khu");
+            return;
+        }
         timeProgressBar.setValue(timeRemaining);
         timeProgressBar.setString("Thời gian: " + timeRemaining + "s");
     }
@@ -193,6 +192,7 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     private void gameOver(boolean won) {
         gameStarted = false;
         gameWon = won;
+        cancelHint();
 
         if (gameTimer != null && gameTimer.isRunning()) {
             gameTimer.stop();
@@ -206,6 +206,7 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
             message = "CHÚC MỪNG BẠN ĐÃ THẮNG!\n"
                     + "ĐIỂM SỐ: " + score + "\n"
                     + "SỐ BƯỚC ĐI: " + moves + "\n"
+                    + "SỐ BƯỚC TỐI ƯU: " + optimalMoves + "\n"
                     + "THỜI GIAN CÒN LẠI: " + timeRemaining + "s\n"
                     + "TỔNG SỐ MÀN CHƠI THẮNG: " + win;
 
@@ -232,19 +233,19 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     public void keyPressed(KeyEvent e) {
         if (!gameStarted || player == null || gameWon) return;
         
-        String direction = null;
+        Player.Direction direction = null;
         switch (e.getKeyCode()) {
             case KeyEvent.VK_UP:
-                direction = "up";
+                direction = Player.Direction.UP;
                 break;
             case KeyEvent.VK_DOWN:
-                direction = "down";
+                direction = Player.Direction.DOWN;
                 break;
             case KeyEvent.VK_LEFT:
-                direction = "left";
+                direction = Player.Direction.LEFT;
                 break;
             case KeyEvent.VK_RIGHT:
-                direction = "right";
+                direction = Player.Direction.RIGHT;
                 break;
         }
         
@@ -259,26 +260,13 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     @Override
     public void keyTyped(KeyEvent e) {}
     
-    private void movePlayer(String direction) {
-        int newRow = player.getRow();
-        int newCol = player.getCol();
-        
-        switch (direction) {
-            case "up":
-                newRow--;
-                break;
-            case "down":
-                newRow++;
-                break;
-            case "left":
-                newCol--;
-                break;
-            case "right":
-                newCol++;
-                break;
-        }
+    private void movePlayer(Player.Direction direction) {
+        int newRow = player.getRow() + direction.getRowStep();
+        int newCol = player.getCol() + direction.getColStep();
         
         if (isValidPlayerMove(newRow, newCol)) {
+            int oldRow = player.getRow();
+            int oldCol = player.getCol();
             player.move(direction, maze.getRows(), maze.getCols());
             moves++;
             // score = Math.max(0, score - 1);
@@ -290,11 +278,46 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
                 gameOver(true);
             }
             
+            if (world != null && followPlayer()) {
+                updateGameInfo();
+                drawPanel.repaint();
+                return;
+            }
+            
             updateGameInfo();
-            drawPanel.repaint();
+            // Only the two cells the player left and entered look different.
+            repaintCell(oldRow, oldCol);
+            repaintCell(player.getRow(), player.getCol());
         }
     }
     
+    /**
+     * Endless mode: loads the chunks around the player, and re-centres the
+     * window on them once they come within a quarter of its edge. Returns
+     * true if the window moved.
+     */
+    private boolean followPlayer() {
+        int row = player.getRow();
+        int col = player.getCol();
+        world.updatePlayerPosition(worldTop + row, worldLeft + col);
+        
+        int margin = size / 4;
+        if (row >= margin && row < size - margin && col >= margin && col < size - margin) {
+            return false;
+        }
+        worldTop += row - size / 2;
+        worldLeft += col - size / 2;
+        player = new Player(size / 2, size / 2, player.getCurrentDirection());
+        showWorldWindow();
+        return true;
+    }
+    
+    private void showWorldWindow() {
+        // No start or exit cell inside the window, so no door is drawn.
+        maze = new MazeGenerator(world.region(worldTop, worldLeft, size, size), -1, -1, -1, -1,
+                world.getWorldSeed(), MazeGenerator.Algorithm.PARALLEL);
+    }
+    
     private boolean isValidPlayerMove(int row, int col) {
         return isWalkablePosition(row, col);
     }
@@ -328,8 +351,11 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         btnStart = new javax.swing.JButton();
         btnExit = new javax.swing.JButton();
         btnHint = new javax.swing.JButton();
+        btnSeed = new javax.swing.JButton();
+        btnEndless = new javax.swing.JButton();
         lblTimer = new javax.swing.JLabel();
         timeProgressBar = new javax.swing.JProgressBar();
+        lblLevelInfo = new javax.swing.JLabel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         setTitle("Tìm đường về nhà");
@@ -394,6 +420,22 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
             }
         });
 
+        btnSeed.setFont(new java.awt.Font("Cascadia Code", 0, 16)); // NOI18N
+        btnSeed.setText("MÃ MÀN");
+        btnSeed.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnSeedActionPerformed(evt);
+            }
+        });
+
+        btnEndless.setFont(new java.awt.Font("Cascadia Code", 0, 16)); // NOI18N
+        btnEndless.setText("VÔ TẬN");
+        btnEndless.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnEndlessActionPerformed(evt);
+            }
+        });
+
         lblTimer.setFont(new java.awt.Font("Cascadia Code", 1, 16)); // NOI18N
         lblTimer.setText("Thời gian");
 
@@ -403,6 +445,9 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         timeProgressBar.setString("Thời gian: 120s");
         timeProgressBar.setStringPainted(true);
 
+        lblLevelInfo.setFont(new java.awt.Font("Segoe UI", 0, 14)); // NOI18N
+        lblLevelInfo.setText(" ");
+
         javax.swing.GroupLayout controlPanelLayout = new javax.swing.GroupLayout(controlPanel);
         controlPanel.setLayout(controlPanelLayout);
         controlPanelLayout.setHorizontalGroup(
@@ -412,12 +457,15 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
                 .addGroup(controlPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                     .addComponent(btnExit, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(timeProgressBar, javax.swing.GroupLayout.DEFAULT_SIZE, 339, Short.MAX_VALUE)
+                    .addComponent(lblLevelInfo, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(btnReset, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(btnStart, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addGroup(controlPanelLayout.createSequentialGroup()
                         .addComponent(lblTimer)
                         .addGap(0, 0, Short.MAX_VALUE))
-                    .addComponent(btnHint, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(btnHint, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(btnSeed, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(btnEndless, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addContainerGap())
         );
         controlPanelLayout.setVerticalGroup(
@@ -427,13 +475,19 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
                 .addComponent(lblTimer)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(timeProgressBar, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(lblLevelInfo)
                 .addGap(29, 29, 29)
                 .addComponent(btnReset, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addGap(18, 18, 18)
                 .addComponent(btnStart, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addGap(18, 18, 18)
                 .addComponent(btnHint, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE)
-                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 395, Short.MAX_VALUE)
+                .addGap(18, 18, 18)
+                .addComponent(btnSeed, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(18, 18, 18)
+                .addComponent(btnEndless, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 243, Short.MAX_VALUE)
                 .addComponent(btnExit, javax.swing.GroupLayout.PREFERRED_SIZE, 50, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap())
         );
@@ -472,43 +526,51 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         );
         
         if (choice == JOptionPane.YES_OPTION) {
-            if (gameTimer != null && gameTimer.isRunning()) {
-                gameTimer.stop();
-            }
-            
-            gameStarted = false;
-            gameWon = false;
-            score = 0;
-            moves = 0;
-            timeRemaining = initialTime;
-            hintUsed = false;
-            player = null;
-            pathFinder = null;
-            collectibles.clear();
-
-            btnStart.setEnabled(true);
-
-            updateGameInfo();
-            drawPanel.repaint();
+            clearGame();
             
             JOptionPane.showMessageDialog(this, "GAME ĐÃ ĐƯỢC RESET!", "THÔNG BÁO", JOptionPane.INFORMATION_MESSAGE);
         }
     }//GEN-LAST:event_btnResetActionPerformed
 
+    private void clearGame() {
+        if (gameTimer != null && gameTimer.isRunning()) {
+            gameTimer.stop();
+        }
+        
+        gameStarted = false;
+        gameWon = false;
+        score = 0;
+        moves = 0;
+        timeRemaining = initialTime;
+        hintUsed = false;
+        player = null;
+        pathFinder = null;
+        coinRoute = null;
+        cancelHint();
+        collectibles.clear();
+        levelRequest++;
+        levelPipeline.cancelNext();
+        if (world != null) {
+            // The window has no exit, so Start must deal a fresh level.
+            world = null;
+            maze = null;
+        }
+
+        btnStart.setEnabled(true);
+
+        updateGameInfo();
+        drawPanel.repaint();
+    }
+
     private void btnStartActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnStartActionPerformed
         // TODO add your handling code here:
-        if (maze == null) {
-            try {
-                playerRow = 0;
-                playerCol = 0;
-                maze = new MazeGenerator(size, size, wallImgPath, floorImgPath, startImgPath, exitImgPath);
-                drawPanel.setPreferredSize(new Dimension(size * cellSize, size * cellSize));
-                mazePanel.revalidate();
-                mazePanel.repaint();
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "LỖI TẢI ẢNH", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        if (assets == null) {
+            JOptionPane.showMessageDialog(this, "LỖI TẢI ẢNH", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        if (world != null) {
+            clearGame();
         }
         
         if (gameStarted) {
@@ -516,6 +578,24 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
             return;
         }
         
+        // After a win, Start moves on to the next prepared level. If the
+        // pipeline is behind, the game starts when the level arrives.
+        if (maze == null || gameWon) {
+            btnStart.setEnabled(false);
+            lblLevelInfo.setText("Đang tạo màn tiếp theo...");
+            int request = ++levelRequest;
+            levelPipeline.next(next -> {
+                if (request == levelRequest) {
+                    showLevel(next);
+                    startLevel();
+                }
+            });
+            return;
+        }
+        startLevel();
+    }//GEN-LAST:event_btnStartActionPerformed
+    
+    private void startLevel() {
         gameStarted = true;
         gameWon = false;
         score = 0;
@@ -524,7 +604,10 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         hintUsed = false;
         
         player = new Player(maze.getStartRow(), maze.getStartCol());
+        optimalMoves = maze.getExitDistanceField().getDistance(maze.getStartRow(), maze.getStartCol());
         pathFinder = new PathFinder(maze);
+        coinRoute = null;
+        cancelHint();
         generateCollectibles();
         startGameTimer();
 
@@ -538,11 +621,30 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         JOptionPane.showMessageDialog(
             this, 
             "GAME BẮT ĐẦU!\nSỬ DỤNG CÁC PHÍM MŨI TÊN ĐỂ DI CHUYỂN\n" +
-            "TÌM ĐƯỜNG ĐẾN CỬA RA TRONG THỜI GIAN QUY ĐỊNH!",
+            "TÌM ĐƯỜNG ĐẾN CỬA RA TRONG THỜI GIAN QUY ĐỊNH!\n" +
+            "MÃ MÀN CHƠI: " + maze.getSeed(),
             "",
             JOptionPane.INFORMATION_MESSAGE
         );
-    }//GEN-LAST:event_btnStartActionPerformed
+    }
+    
+    private void showLevel(Level next) {
+        currentLevel = next;
+        level = next.getNumber();
+        maze = next.getMaze();
+        gameWon = false;
+        pathFinder = null;
+        coinRoute = null;
+        cancelHint();
+        lblLevelInfo.setText("Màn " + level + ": sinh trong " + next.getGenerationNanos() / 1_000_000
+                + " ms, " + levelPipeline.getQueueDepth() + " màn chờ sẵn");
+        
+        playerRow = 0;
+        playerCol = 0;
+        drawPanel.setPreferredSize(new Dimension(size * cellSize, size * cellSize));
+        mazePanel.revalidate();
+        mazePanel.repaint();
+    }
     
     private void btnExitActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnExitActionPerformed
         // TODO add your handling code here:
@@ -553,6 +655,8 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
         );
     
         if (choice == JOptionPane.YES_OPTION) {
+            levelPipeline.shutdown();
+            hintSolver.shutdown();
             this.setVisible(false);
             new Home().setVisible(true);
         }
@@ -574,22 +678,121 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
             JOptionPane.showMessageDialog(this, "GAME KẾT THÚC!", "THÔNG BÁO", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        
+        if (world != null) {
+            JOptionPane.showMessageDialog(this, "CHẾ ĐỘ VÔ TẬN KHÔNG CÓ CỬA RA!", "THÔNG BÁO", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
         hintUsed = true;
         score = Math.max(0, score - 10);
         
-        pathFinder = new PathFinder(maze, player.getRow(), player.getCol(), maze.getExitRow(), maze.getExitCol());
-        
-        List<PathFinder.Node> path = pathFinder.findPath();
+        // The hint routes through every coin still on the board, then to the exit.
+        // It is planned in the background; explored cells show up as it goes.
+        pathFinder = null;
+        coinRoute = null;
+        long[] explored = new long[(maze.getRows() * maze.getCols() + 63) >>> 6];
+        hintExplored = explored;
+        int request = ++hintRequest;
+        hintTask = hintSolver.planRoute(maze, pathCache, player.getRow(), player.getCol(), collectibles,
+                HINT_BUDGET_MILLIS,
+                cells -> {
+                    // Repaint only the band of rows this batch touched.
+                    int cols = maze.getCols();
+                    int firstRow = Integer.MAX_VALUE, lastRow = 0;
+                    for (int cell : cells) {
+                        explored[cell >>> 6] |= 1L << cell;
+                        firstRow = Math.min(firstRow, cell / cols);
+                        lastRow = Math.max(lastRow, cell / cols);
+                    }
+                    drawPanel.repaint(0, firstRow * cellSize, cols * cellSize, (lastRow - firstRow + 1) * cellSize);
+                },
+                route -> {
+                    if (request == hintRequest) {
+                        showHint(route);
+                    }
+                });
         
-        if (path.isEmpty()) {
+        updateGameInfo();
+        drawPanel.repaint();
+        this.requestFocus();
+    }//GEN-LAST:event_btnHintActionPerformed
+
+    private void showHint(CoinRoutePlanner.Route route) {
+        hintTask = null;
+        if (route == null) {
+            // Out of time: fall back to the straight way out, which needs no search.
+            pathFinder = new PathFinder(maze, player.getRow(), player.getCol(), maze.getExitRow(), maze.getExitCol());
+            pathFinder.setMode(PathFinder.Mode.EXIT_FIELD);
+            if (pathFinder.findPath().isEmpty()) {
+                JOptionPane.showMessageDialog(this, "KHÔNG TÌM THẤY ĐƯỜNG ĐI!", "THÔNG BÁO", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        else if (route.isEmpty()) {
             JOptionPane.showMessageDialog(this, "KHÔNG TÌM THẤY ĐƯỜNG ĐI!", "THÔNG BÁO", JOptionPane.ERROR_MESSAGE);
         }
+        else {
+            coinRoute = route;
+        }
+        drawPanel.repaint();
+    }
+    
+    private void cancelHint() {
+        hintRequest++;
+        if (hintTask != null) {
+            hintTask.cancel(true);
+            hintTask = null;
+        }
+        hintExplored = null;
+    }
+
+    private void btnSeedActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSeedActionPerformed
+        // Replays a level from the code shown when it started; cached mazes load instantly.
+        Object input = JOptionPane.showInputDialog(this, "NHẬP MÃ MÀN CHƠI:", "MÃ MÀN",
+                JOptionPane.QUESTION_MESSAGE, null, null, maze != null ? String.valueOf(maze.getSeed()) : "");
+        if (input == null) {
+            return;
+        }
+        
+        long seed;
+        try {
+            seed = Long.parseLong(input.toString().trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "MÃ MÀN CHƠI KHÔNG HỢP LỆ!", "THÔNG BÁO", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        clearGame();
+        btnStart.setEnabled(false);
+        lblLevelInfo.setText("Đang tạo màn " + seed + "...");
+        int request = levelRequest;
+        levelPipeline.replay(seed, level, replayed -> {
+            if (request == levelRequest) {
+                showLevel(replayed);
+                btnStart.setEnabled(true);
+                this.requestFocus();
+            }
+        });
+    }//GEN-LAST:event_btnSeedActionPerformed
+
+    private void btnEndlessActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnEndlessActionPerformed
+        // Free roaming with no exit or timer; chunks are carved as the player nears them.
+        clearGame();
+        world = new ChunkedMazeWorld(new SplittableRandom().nextLong());
+        worldTop = -size / 2;
+        worldLeft = -size / 2;
+        showWorldWindow();
+        
+        player = new Player(size / 2, size / 2);
+        world.updatePlayerPosition(0, 0);
+        gameStarted = true;
+        drawPanel.setPreferredSize(new Dimension(size * cellSize, size * cellSize));
+        mazePanel.revalidate();
         
         updateGameInfo();
         drawPanel.repaint();
         this.requestFocus();
-    }//GEN-LAST:event_btnHintActionPerformed
+    }//GEN-LAST:event_btnEndlessActionPerformed
 
     /**
      * @param args the command line arguments
@@ -627,12 +830,15 @@ public class GameJFrame extends javax.swing.JFrame implements KeyListener {
     }
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton btnEndless;
     private javax.swing.JButton btnExit;
     private javax.swing.JButton btnHint;
     private javax.swing.JButton btnReset;
+    private javax.swing.JButton btnSeed;
     private javax.swing.JButton btnStart;
     private javax.swing.JPanel controlPanel;
     private javax.swing.JPanel drawPanel;
+    private javax.swing.JLabel lblLevelInfo;
     private javax.swing.JLabel lblTimer;
     private javax.swing.JPanel mazePanel;
     private javax.swing.JProgressBar timeProgressBar;
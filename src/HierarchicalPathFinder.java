@@ -0,0 +1,377 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Hierarchical path-finding (HPA*). The maze is cut into square clusters.
+ * Wherever a pair of open cells faces across a cluster border, those cells
+ * become entrances, joined by an edge of length 1. Inside each cluster the
+ * distance between every two entrances is found once by BFS; those runs are
+ * independent, so they are spread over the common pool.
+ *
+ * A query links start and goal to the entrances of their own clusters, runs
+ * A* over the entrance graph, and then fills in cells only inside the
+ * clusters the chosen route passes through. A long run of facing cells gets
+ * entrances at its two ends only, so paths through wide openings may be a few
+ * steps longer than the shortest; in corridor mazes every run has length one
+ * and the result is exact.
+ *
+ * Cells are flat indices (row * cols + col).
+ *
+ * @author 11a5h
+ */
+public class HierarchicalPathFinder {
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    private final MazeGrid grid;
+    private final int rows, cols;
+    private final int clusterSize;
+    private final int clusterRows, clusterCols;
+
+    // Entrance nodes, and the nodes of each cluster: clusterNodes[c] lists node numbers.
+    private final int[] nodeCell;
+    private final int[][] clusterNodes;
+
+    // Edges in compressed form: node n's edges are edgeTo/edgeLength[edgeStart[n] .. edgeStart[n + 1]).
+    private final int[] edgeStart;
+    private final int[] edgeTo;
+    private final int[] edgeLength;
+    private final long buildNanos;
+
+    public HierarchicalPathFinder(MazeGrid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(MazeGrid grid, int clusterSize) {
+        long started = System.nanoTime();
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+
+        // Entrances, with their partner across the border.
+        Map<Integer, Integer> nodeOf = new HashMap<>();
+        List<int[]> crossings = new ArrayList<>();
+        for (int r = 0; r < rows; r += clusterSize) {
+            for (int c = clusterSize; c < cols; c += clusterSize) {
+                scanBorder(r, c - 1, 1, 0, 0, 1, Math.min(clusterSize, rows - r), nodeOf, crossings);
+            }
+        }
+        for (int r = clusterSize; r < rows; r += clusterSize) {
+            for (int c = 0; c < cols; c += clusterSize) {
+                scanBorder(r - 1, c, 0, 1, 1, 0, Math.min(clusterSize, cols - c), nodeOf, crossings);
+            }
+        }
+
+        nodeCell = new int[nodeOf.size()];
+        int[] clusterFill = new int[clusterRows * clusterCols];
+        for (Map.Entry<Integer, Integer> e : nodeOf.entrySet()) {
+            nodeCell[e.getValue()] = e.getKey();
+            clusterFill[clusterOf(e.getKey())]++;
+        }
+        clusterNodes = new int[clusterRows * clusterCols][];
+        for (int k = 0; k < clusterNodes.length; k++) {
+            clusterNodes[k] = new int[clusterFill[k]];
+            clusterFill[k] = 0;
+        }
+        for (int n = 0; n < nodeCell.length; n++) {
+            int k = clusterOf(nodeCell[n]);
+            clusterNodes[k][clusterFill[k]++] = n;
+        }
+
+        // Distances between the entrances of each cluster, one cluster per task.
+        int[][][] intra = new int[clusterNodes.length][][];
+        IntStream.range(0, clusterNodes.length).parallel().forEach(k -> intra[k] = clusterDistances(k));
+
+        // Assemble: crossings both ways, then the within-cluster pairs that connect.
+        int[] degree = new int[nodeCell.length + 1];
+        for (int[] crossing : crossings) {
+            degree[crossing[0] + 1]++;
+            degree[crossing[1] + 1]++;
+        }
+        for (int k = 0; k < clusterNodes.length; k++) {
+            int[] nodes = clusterNodes[k];
+            for (int i = 0; i < nodes.length; i++) {
+                for (int j = 0; j < nodes.length; j++) {
+                    if (i != j && intra[k][i][j] > 0) {
+                        degree[nodes[i] + 1]++;
+                    }
+                }
+            }
+        }
+        for (int n = 0; n < nodeCell.length; n++) {
+            degree[n + 1] += degree[n];
+        }
+        edgeStart = degree;
+        edgeTo = new int[edgeStart[nodeCell.length]];
+        edgeLength = new int[edgeTo.length];
+        int[] fill = Arrays.copyOf(edgeStart, nodeCell.length);
+        for (int[] crossing : crossings) {
+            addEdge(fill, crossing[0], crossing[1], 1);
+            addEdge(fill, crossing[1], crossing[0], 1);
+        }
+        for (int k = 0; k < clusterNodes.length; k++) {
+            int[] nodes = clusterNodes[k];
+            for (int i = 0; i < nodes.length; i++) {
+                for (int j = 0; j < nodes.length; j++) {
+                    if (i != j && intra[k][i][j] > 0) {
+                        addEdge(fill, nodes[i], nodes[j], intra[k][i][j]);
+                    }
+                }
+            }
+        }
+        buildNanos = System.nanoTime() - started;
+    }
+
+    public int getClusterCount() {
+        return clusterNodes.length;
+    }
+
+    public int getEntranceCount() {
+        return nodeCell.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTo.length;
+    }
+
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Path between two cells, both included; empty if either is a wall or
+     * there is no path. Expanded entrance cells are left in scratch.explored.
+     */
+    public int[] findPath(int start, int goal, SearchScratch scratch) {
+        if (!isOpen(start) || !isOpen(goal)) {
+            return new int[0];
+        }
+
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        int n = nodeCell.length;
+        int goalNode = n + 1;
+        int[] local = new int[clusterSize * clusterSize];
+
+        // Distances from the goal to the entrances of its cluster.
+        int[] goalNodes = clusterNodes[goalCluster];
+        int[] toGoal = new int[goalNodes.length];
+        bfsInCluster(goal, goalCluster, local, null);
+        for (int i = 0; i < goalNodes.length; i++) {
+            toGoal[i] = local[localIndex(nodeCell[goalNodes[i]])] - 1;
+        }
+
+        scratch.begin(n + 2);
+        int goalRow = goal / cols, goalCol = goal % cols;
+
+        // Staying inside one cluster is a candidate when both ends share it.
+        bfsInCluster(start, startCluster, local, null);
+        if (startCluster == goalCluster && local[localIndex(goal)] > 0) {
+            relax(scratch, goalNode, local[localIndex(goal)] - 1, 0, n);
+        }
+        for (int node : clusterNodes[startCluster]) {
+            int d = local[localIndex(nodeCell[node])] - 1;
+            if (d >= 0) {
+                relax(scratch, node, d, heuristic(nodeCell[node], goalRow, goalCol), n);
+            }
+        }
+
+        while (!scratch.isHeapEmpty()) {
+            int node = scratch.pop();
+            if (node == goalNode) {
+                break;
+            }
+            scratch.recordExpanded(nodeCell[node]);
+            int g = scratch.g[node];
+
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int next = edgeTo[e];
+                relax(scratch, next, g + edgeLength[e], heuristic(nodeCell[next], goalRow, goalCol), node);
+            }
+            if (clusterOf(nodeCell[node]) == goalCluster) {
+                int i = Arrays.binarySearch(goalNodes, node);
+                if (toGoal[i] >= 0) {
+                    relax(scratch, goalNode, g + toGoal[i], 0, node);
+                }
+            }
+        }
+
+        if (!scratch.isSeen(goalNode) || scratch.isOpen(goalNode)) {
+            return new int[0];
+        }
+
+        // Refine: walk the entrance chain back and fill in each leg.
+        int[] path = new int[scratch.g[goalNode] + 1];
+        int i = path.length - 1;
+        path[i] = goal;
+        int node = goalNode;
+        int cell = goal;
+        while (node != n) {
+            int previous = scratch.parent[node];
+            int previousCell = previous == n ? start : nodeCell[previous];
+            if (clusterOf(previousCell) == clusterOf(cell)) {
+                i = fillLeg(previousCell, cell, local, path, i);
+            }
+            else {
+                path[--i] = previousCell;
+            }
+            node = previous;
+            cell = previousCell;
+        }
+        return path;
+    }
+
+    private void relax(SearchScratch scratch, int node, int g, int h, int parent) {
+        if (!scratch.isSeen(node)) {
+            scratch.markSeen(node);
+        }
+        else if (!scratch.isOpen(node) || g >= scratch.g[node]) {
+            return;
+        }
+        scratch.g[node] = g;
+        scratch.f[node] = g + h;
+        scratch.parent[node] = parent;
+        scratch.push(node);
+    }
+
+    /**
+     * Writes the cells from 'from' up to 'to' into path, ending just before
+     * index 'end' (which already holds 'to'). Returns the index of 'from'.
+     */
+    private int fillLeg(int from, int to, int[] local, int[] path, int end) {
+        int[] parent = new int[local.length];
+        bfsInCluster(from, clusterOf(from), local, parent);
+        int i = end;
+        for (int cell = to; cell != from; ) {
+            cell = parent[localIndex(cell)];
+            path[--i] = cell;
+        }
+        return i;
+    }
+
+    /**
+     * BFS from source that never leaves the cluster. local[] gets distance + 1
+     * for every reached cell (0 means not reached), indexed by localIndex();
+     * parent[], if given, the previous flat cell.
+     */
+    private void bfsInCluster(int source, int cluster, int[] local, int[] parent) {
+        Arrays.fill(local, 0);
+        int r0 = (cluster / clusterCols) * clusterSize;
+        int c0 = (cluster % clusterCols) * clusterSize;
+        int r1 = Math.min(r0 + clusterSize, rows);
+        int c1 = Math.min(c0 + clusterSize, cols);
+
+        int[] queue = new int[local.length];
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        local[localIndex(source)] = 1;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int row = current / cols;
+            int col = current - row * cols;
+            for (int d = 0; d < 4; d++) {
+                int newRow = row + DR[d];
+                int newCol = col + DC[d];
+                if (newRow < r0 || newRow >= r1 || newCol < c0 || newCol >= c1 || !grid.isWalkable(newRow, newCol)) {
+                    continue;
+                }
+                int next = newRow * cols + newCol;
+                int index = localIndex(next);
+                if (local[index] == 0) {
+                    local[index] = local[localIndex(current)] + 1;
+                    if (parent != null) {
+                        parent[index] = current;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * intra[i][j] = distance from entrance i to entrance j inside cluster k,
+     * 0 where they do not connect inside it.
+     */
+    private int[][] clusterDistances(int k) {
+        int[] nodes = clusterNodes[k];
+        int[][] intra = new int[nodes.length][nodes.length];
+        int[] local = new int[clusterSize * clusterSize];
+        for (int i = 0; i < nodes.length; i++) {
+            bfsInCluster(nodeCell[nodes[i]], k, local, null);
+            for (int j = 0; j < nodes.length; j++) {
+                intra[i][j] = Math.max(0, local[localIndex(nodeCell[nodes[j]])] - 1);
+            }
+        }
+        return intra;
+    }
+
+    /**
+     * Walks 'length' cells along one side of a border from (row, col) in
+     * direction (dr, dc); the facing cell is (ar, ac) away. Each run of open
+     * facing pairs gets an entrance pair at its ends (one pair if short).
+     */
+    private void scanBorder(int row, int col, int dr, int dc, int ar, int ac, int length,
+            Map<Integer, Integer> nodeOf, List<int[]> crossings) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int r = row + dr * i, c = col + dc * i;
+            boolean open = i < length && grid.isWalkable(r, c) && grid.isWalkable(r + ar, c + ac);
+            if (open && runStart < 0) {
+                runStart = i;
+            }
+            else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart < 6) {
+                    addCrossing(row + dr * ((runStart + runEnd) / 2), col + dc * ((runStart + runEnd) / 2), ar, ac, nodeOf, crossings);
+                }
+                else {
+                    addCrossing(row + dr * runStart, col + dc * runStart, ar, ac, nodeOf, crossings);
+                    addCrossing(row + dr * runEnd, col + dc * runEnd, ar, ac, nodeOf, crossings);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addCrossing(int row, int col, int ar, int ac, Map<Integer, Integer> nodeOf, List<int[]> crossings) {
+        int a = nodeOf.computeIfAbsent(row * cols + col, cell -> nodeOf.size());
+        int b = nodeOf.computeIfAbsent((row + ar) * cols + col + ac, cell -> nodeOf.size());
+        crossings.add(new int[]{a, b});
+    }
+
+    private void addEdge(int[] fill, int from, int to, int length) {
+        edgeTo[fill[from]] = to;
+        edgeLength[fill[from]++] = length;
+    }
+
+    private boolean isOpen(int cell) {
+        return cell >= 0 && cell < rows * cols && grid.isWalkable(cell / cols, cell % cols);
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / cols / clusterSize) * clusterCols + (cell % cols) / clusterSize;
+    }
+
+    private int localIndex(int cell) {
+        return (cell / cols % clusterSize) * clusterSize + cell % cols % clusterSize;
+    }
+
+    private int heuristic(int cell, int goalRow, int goalCol) {
+        return Math.abs(cell / cols - goalRow) + Math.abs(cell % cols - goalCol);
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Plans hint routes on a background thread so the Event Dispatch Thread,
+ * and with it the countdown timer, never waits on a search.
+ * 
+ * A request returns a Future the UI can cancel. Expanded cells are passed to
+ * the EDT in batches, at most once per PROGRESS_INTERVAL_NANOS, so a long
+ * search cannot flood the event queue. A search that runs past its time
+ * budget is stopped and completes with null.
+ *
+ * @author 11a5h
+ */
+public class HintSolver {
+    // About 60 updates a second.
+    private static final long PROGRESS_INTERVAL_NANOS = 16_000_000;
+    
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hint-solver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * Starts planning a route from the player through the coins still on the
+     * board to the exit.
+     * 
+     * @param progress gets batches of expanded cells on the EDT, or null
+     * @param onDone gets the route on the EDT, or null if the budget ran out;
+     *               not called if the request is cancelled
+     */
+    public Future<CoinRoutePlanner.Route> planRoute(MazeGenerator maze, PathCache pathCache,
+            int startRow, int startCol, List<Collectible> coins, long budgetMillis,
+            Consumer<int[]> progress, Consumer<CoinRoutePlanner.Route> onDone) {
+        // Coins are collected on the EDT; the search works on a snapshot.
+        List<Collectible> remaining = new ArrayList<>();
+        for (Collectible coin : coins) {
+            if (!coin.isCollected()) {
+                remaining.add(coin);
+            }
+        }
+        
+        Tracker tracker = new Tracker(progress, System.nanoTime() + budgetMillis * 1_000_000);
+        CoinRoutePlanner planner = new CoinRoutePlanner(maze.getGrid(), pathCache);
+        planner.setSearchListener(tracker);
+        
+        FutureTask<CoinRoutePlanner.Route> task = new FutureTask<>(() -> {
+            try {
+                CoinRoutePlanner.Route route = planner.plan(startRow, startCol, remaining,
+                        maze.getExitRow(), maze.getExitCol());
+                tracker.flush();
+                return route;
+            } catch (CancellationException ex) {
+                // Out of time, or cancelled; cancelled tasks never reach onDone.
+                return null;
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> {
+                    try {
+                        onDone.accept(get());
+                    } catch (Exception ex) {
+                        System.err.println("Không thể tìm gợi ý: " + ex.getMessage());
+                    }
+                });
+            }
+        };
+        tracker.task = task;
+        executor.execute(task);
+        return task;
+    }
+    
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Sees every expanded cell. Stops the search by throwing once the task is
+     * cancelled or the deadline has passed, and batches cells for the EDT.
+     * 
+     * The planner's distance runs are parallel, so each thread fills its own
+     * batch and nothing is locked per cell. Once one thread sees the search
+     * is over it sets the volatile stopped flag, which the others pick up at
+     * their next check.
+     */
+    private static final class Tracker implements SearchListener {
+        private final Consumer<int[]> progress;
+        private final long deadline;
+        private Future<?> task;
+        private volatile boolean stopped;
+        
+        private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(this::newBatch);
+        private final Queue<Batch> allBatches = new ConcurrentLinkedQueue<>();
+        
+        Tracker(Consumer<int[]> progress, long deadline) {
+            this.progress = progress;
+            this.deadline = deadline;
+        }
+        
+        @Override
+        public void onExpand(int cell) {
+            Batch batch = batches.get();
+            // Reading the clock every cell would cost more than the search step.
+            if ((++batch.expanded & 255) == 0) {
+                long now = System.nanoTime();
+                if (stopped || task.isCancelled() || now > deadline) {
+                    stopped = true;
+                    throw new CancellationException();
+                }
+                if (now - batch.lastPublished >= PROGRESS_INTERVAL_NANOS) {
+                    publish(batch, now);
+                }
+            }
+            if (progress != null) {
+                if (batch.count == batch.cells.length) {
+                    batch.cells = Arrays.copyOf(batch.cells, batch.count * 2);
+                }
+                batch.cells[batch.count++] = cell;
+            }
+        }
+        
+        /**
+         * Publishes what every thread still holds. Called by the planning
+         * thread once the planner has returned, so the parallel runs are done.
+         */
+        void flush() {
+            long now = System.nanoTime();
+            for (Batch batch : allBatches) {
+                publish(batch, now);
+            }
+        }
+        
+        private Batch newBatch() {
+            Batch batch = new Batch();
+            allBatches.add(batch);
+            return batch;
+        }
+        
+        private void publish(Batch batch, long now) {
+            batch.lastPublished = now;
+            if (batch.count == 0) {
+                return;
+            }
+            int[] cells = Arrays.copyOf(batch.cells, batch.count);
+            batch.count = 0;
+            SwingUtilities.invokeLater(() -> {
+                if (!task.isCancelled()) {
+                    progress.accept(cells);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Cells expanded by one thread and not yet handed to the EDT.
+     */
+    private static final class Batch {
+        int[] cells = new int[256];
+        int count;
+        long expanded;
+        long lastPublished = System.nanoTime();
+    }
+}
@@ -0,0 +1,362 @@
+import java.util.Arrays;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * The maze contracted to a weighted graph. Nodes are the cells that do not
+ * have exactly two open neighbours (junctions, dead ends); every corridor
+ * between two nodes becomes one edge weighted by its length. Each corridor
+ * cell remembers its edge and its offset from the edge's first end, so a
+ * search can start or stop in the middle of a corridor.
+ * 
+ * A DFS maze is mostly corridor, so the graph has several times fewer
+ * nodes than the maze has open cells; getReduction() reports the ratio.
+ * Cells are flat indices (row * cols + col).
+ *
+ * @author 11a5h
+ */
+public class JunctionGraph {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    
+    private final MazeGrid grid;
+    private final int cols;
+    private final int walkableCells;
+    
+    // Per cell: node number, or the corridor edge and the offset along it.
+    private final int[] nodeOfCell;
+    private final int[] edgeOfCell;
+    private final int[] offsetOfCell;
+    
+    private int nodeCount;
+    private int[] nodeCell = new int[16];
+    
+    private int edgeCount;
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private int[] edgeLength = new int[16];
+    private int[] edgeFirstDir = new int[16];
+    private int[] edgeLastDir = new int[16];
+    
+    // Adjacency in compressed form: edges of node n are adjacency[adjacencyStart[n] .. adjacencyStart[n + 1]).
+    private int[] adjacencyStart;
+    private int[] adjacency;
+    
+    public JunctionGraph(MazeGrid grid) {
+        this.grid = grid;
+        this.cols = grid.getCols();
+        int rows = grid.getRows();
+        int cells = rows * cols;
+        
+        nodeOfCell = new int[cells];
+        edgeOfCell = new int[cells];
+        offsetOfCell = new int[cells];
+        Arrays.fill(nodeOfCell, -1);
+        Arrays.fill(edgeOfCell, -1);
+        
+        int walkable = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (grid.isWalkable(r, c)) {
+                    walkable++;
+                    if (degree(r, c) != 2) {
+                        addNode(r * cols + c);
+                    }
+                }
+            }
+        }
+        walkableCells = walkable;
+        
+        for (int n = 0; n < nodeCount; n++) {
+            traceCorridors(n);
+        }
+        
+        // Loops with no junction on them get one of their cells as a node.
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int cell = r * cols + c;
+                if (grid.isWalkable(r, c) && nodeOfCell[cell] < 0 && edgeOfCell[cell] < 0) {
+                    traceCorridors(addNode(cell));
+                }
+            }
+        }
+        
+        buildAdjacency();
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+    
+    public int getWalkableCellCount() {
+        return walkableCells;
+    }
+    
+    /**
+     * Walkable cells per graph node; how much smaller the search space got.
+     */
+    public double getReduction() {
+        return nodeCount == 0 ? 1.0 : (double) walkableCells / nodeCount;
+    }
+    
+    /**
+     * Shortest path between two cells, expanded back to cells, both ends
+     * included. Empty if either cell is a wall or no path exists.
+     * 
+     * @param scratch per-thread buffers; the graph itself is never modified
+     */
+    public int[] findPath(int start, int goal, SearchScratch scratch) {
+        int startRow = start / cols, goalRow = goal / cols;
+        if (!grid.isWalkable(startRow, start - startRow * cols) || !grid.isWalkable(goalRow, goal - goalRow * cols)) {
+            return new int[0];
+        }
+        
+        // Both ends on the same corridor: the direct stretch is one candidate.
+        int best = Integer.MAX_VALUE;
+        int bestNode = -1;
+        int bestGoalSide = -1;
+        if (nodeOfCell[start] < 0 && nodeOfCell[goal] < 0 && edgeOfCell[start] == edgeOfCell[goal]) {
+            best = Math.abs(offsetOfCell[start] - offsetOfCell[goal]);
+        }
+        
+        // Dijkstra over nodes. parent[n] holds the edge used to reach n, or
+        // SOURCE_* for the stretch from the start cell.
+        scratch.begin(nodeCount);
+        if (nodeOfCell[start] >= 0) {
+            relax(scratch, nodeOfCell[start], 0, SOURCE_NODE);
+        }
+        else {
+            int e = edgeOfCell[start];
+            relax(scratch, nodeOfCell[edgeFrom[e]], offsetOfCell[start], SOURCE_TOWARD_FROM);
+            relax(scratch, nodeOfCell[edgeTo[e]], edgeLength[e] - offsetOfCell[start], SOURCE_TOWARD_TO);
+        }
+        
+        int goalNode = nodeOfCell[goal];
+        int goalEdge = goalNode >= 0 ? -1 : edgeOfCell[goal];
+        
+        while (!scratch.isHeapEmpty()) {
+            int node = scratch.pop();
+            int dist = scratch.g[node];
+            if (dist >= best) {
+                break;
+            }
+            scratch.recordExpanded(nodeCell[node]);
+            
+            if (node == goalNode) {
+                best = dist;
+                bestNode = node;
+                break;
+            }
+            if (goalEdge >= 0) {
+                int cell = nodeCell[node];
+                if (cell == edgeFrom[goalEdge] && dist + offsetOfCell[goal] < best) {
+                    best = dist + offsetOfCell[goal];
+                    bestNode = node;
+                    bestGoalSide = 0;
+                }
+                if (cell == edgeTo[goalEdge] && dist + edgeLength[goalEdge] - offsetOfCell[goal] < best) {
+                    best = dist + edgeLength[goalEdge] - offsetOfCell[goal];
+                    bestNode = node;
+                    bestGoalSide = 1;
+                }
+            }
+            
+            for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                int e = adjacency[i];
+                int other = nodeOfCell[edgeFrom[e] == nodeCell[node] ? edgeTo[e] : edgeFrom[e]];
+                relax(scratch, other, dist + edgeLength[e], e);
+            }
+        }
+        
+        if (best == Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        
+        int[] cells = new int[best + 1];
+        if (bestNode < 0) {
+            // Straight along the shared corridor.
+            int e = edgeOfCell[start];
+            boolean forward = offsetOfCell[goal] >= offsetOfCell[start];
+            walkCorridor(e, forward, forward ? offsetOfCell[start] : edgeLength[e] - offsetOfCell[start], cells, 0, best);
+            return cells;
+        }
+        
+        // Fill from the goal backwards, one edge at a time.
+        int i = best;
+        if (bestGoalSide >= 0) {
+            int reach = bestGoalSide == 0 ? offsetOfCell[goal] : edgeLength[goalEdge] - offsetOfCell[goal];
+            i -= reach;
+            walkCorridor(goalEdge, bestGoalSide == 0, 0, cells, i, reach);
+        }
+        
+        int node = bestNode;
+        while (scratch.parent[node] >= 0) {
+            int e = scratch.parent[node];
+            boolean forward = edgeTo[e] == nodeCell[node];
+            i -= edgeLength[e];
+            walkCorridor(e, forward, 0, cells, i, edgeLength[e]);
+            node = nodeOfCell[forward ? edgeFrom[e] : edgeTo[e]];
+        }
+        cells[0] = start;
+        
+        if (scratch.parent[node] != SOURCE_NODE) {
+            int e = edgeOfCell[start];
+            // Walk from the start cell back out to the node it left through.
+            boolean forward = scratch.parent[node] == SOURCE_TOWARD_TO;
+            int from = forward ? offsetOfCell[start] : edgeLength[e] - offsetOfCell[start];
+            walkCorridor(e, forward, from, cells, 0, i);
+        }
+        return cells;
+    }
+    
+    private static final int SOURCE_NODE = -1;
+    private static final int SOURCE_TOWARD_FROM = -2;
+    private static final int SOURCE_TOWARD_TO = -3;
+    
+    private void relax(SearchScratch scratch, int node, int dist, int via) {
+        if (!scratch.isSeen(node)) {
+            scratch.markSeen(node);
+        }
+        else if (!scratch.isOpen(node) || dist >= scratch.g[node]) {
+            return;
+        }
+        scratch.g[node] = dist;
+        scratch.f[node] = dist;
+        scratch.parent[node] = via;
+        scratch.push(node);
+    }
+    
+    /**
+     * Writes the cells of edge e into out[at .. at + steps], starting 'skip'
+     * steps in from the end it is walked from (edgeFrom when forward).
+     */
+    private void walkCorridor(int e, boolean forward, int skip, int[] out, int at, int steps) {
+        int cell = forward ? edgeFrom[e] : edgeTo[e];
+        int dir = forward ? edgeFirstDir[e] : edgeLastDir[e];
+        
+        for (int s = 0; s < skip + steps; s++) {
+            if (s >= skip) {
+                out[at++] = cell;
+            }
+            cell += DR[dir] * cols + DC[dir];
+            dir = nextDir(cell, dir);
+        }
+        out[at] = cell;
+    }
+    
+    /**
+     * Direction to leave a corridor cell by, having entered it moving in dir.
+     */
+    private int nextDir(int cell, int dir) {
+        int row = cell / cols;
+        int col = cell - row * cols;
+        int back = (dir + 2) & 3;
+        for (int d = 0; d < 4; d++) {
+            if (d != back && grid.isWalkable(row + DR[d], col + DC[d])) {
+                return d;
+            }
+        }
+        return dir;
+    }
+    
+    private int degree(int row, int col) {
+        int degree = 0;
+        for (int d = 0; d < 4; d++) {
+            if (grid.isWalkable(row + DR[d], col + DC[d])) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+    
+    private int addNode(int cell) {
+        if (nodeCount == nodeCell.length) {
+            nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+        }
+        nodeOfCell[cell] = nodeCount;
+        nodeCell[nodeCount] = cell;
+        return nodeCount++;
+    }
+    
+    private void traceCorridors(int node) {
+        int from = nodeCell[node];
+        int row = from / cols;
+        int col = from - row * cols;
+        
+        for (int d = 0; d < 4; d++) {
+            if (!grid.isWalkable(row + DR[d], col + DC[d])) {
+                continue;
+            }
+            int cell = from + DR[d] * cols + DC[d];
+            if (edgeOfCell[cell] >= 0) {
+                // Already traced from its other end.
+                continue;
+            }
+            if (nodeOfCell[cell] >= 0) {
+                // Two adjacent nodes: add the one-step edge from the lower cell only.
+                if (from < cell) {
+                    addEdge(from, cell, 1, d, (d + 2) & 3);
+                }
+                continue;
+            }
+            
+            int e = edgeCount;
+            int dir = d;
+            int length = 0;
+            while (nodeOfCell[cell] < 0) {
+                length++;
+                edgeOfCell[cell] = e;
+                offsetOfCell[cell] = length;
+                dir = nextDir(cell, dir);
+                cell += DR[dir] * cols + DC[dir];
+            }
+            addEdge(from, cell, length + 1, d, (dir + 2) & 3);
+        }
+    }
+    
+    private void addEdge(int from, int to, int length, int firstDir, int lastDir) {
+        if (edgeCount == edgeFrom.length) {
+            int size = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, size);
+            edgeTo = Arrays.copyOf(edgeTo, size);
+            edgeLength = Arrays.copyOf(edgeLength, size);
+            edgeFirstDir = Arrays.copyOf(edgeFirstDir, size);
+            edgeLastDir = Arrays.copyOf(edgeLastDir, size);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeLength[edgeCount] = length;
+        edgeFirstDir[edgeCount] = firstDir;
+        edgeLastDir[edgeCount] = lastDir;
+        edgeCount++;
+    }
+    
+    private void buildAdjacency() {
+        adjacencyStart = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            adjacencyStart[nodeOfCell[edgeFrom[e]] + 1]++;
+            if (edgeTo[e] != edgeFrom[e]) {
+                adjacencyStart[nodeOfCell[edgeTo[e]] + 1]++;
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            adjacencyStart[n + 1] += adjacencyStart[n];
+        }
+        
+        adjacency = new int[adjacencyStart[nodeCount]];
+        int[] fill = Arrays.copyOf(adjacencyStart, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            adjacency[fill[nodeOfCell[edgeFrom[e]]]++] = e;
+            if (edgeTo[e] != edgeFrom[e]) {
+                adjacency[fill[nodeOfCell[edgeTo[e]]]++] = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.SplittableRandom;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * A ready-to-play level: the maze plus the cells its collectibles go on.
+ * Cells are flat indices (row * cols + col).
+ *
+ * @author 11a5h
+ */
+public class Level {
+    private final int number;
+    private final MazeGenerator maze;
+    private final int[] collectibleCells;
+    private final long generationNanos;
+    
+    public Level(int number, MazeGenerator maze, int[] collectibleCells, long generationNanos) {
+        this.number = number;
+        this.maze = maze;
+        this.collectibleCells = collectibleCells;
+        this.generationNanos = generationNanos;
+    }
+    
+    public int getNumber() {
+        return number;
+    }
+    
+    public MazeGenerator getMaze() {
+        return maze;
+    }
+    
+    public int[] getCollectibleCells() {
+        return collectibleCells;
+    }
+    
+    public long getGenerationNanos() {
+        return generationNanos;
+    }
+    
+    public static int collectibleCount(int size, int number) {
+        int baseCollectibles = Math.max(3, size / 3);
+        int bonusCollectibles = (number - 1) * 2;
+        return baseCollectibles + bonusCollectibles;
+    }
+    
+    /**
+     * Picks distinct walkable cells, away from start and exit, from the maze's
+     * placement stream. A slot is dropped after 100 failed attempts.
+     */
+    public static int[] placeCollectibles(MazeGenerator maze, int count) {
+        SplittableRandom placementRandom = maze.createPlacementRandom();
+        MazeGrid grid = maze.getGrid();
+        int cols = maze.getCols();
+        int[] cells = new int[count];
+        int placed = 0;
+
+        for (int i = 0; i < count; i++) {
+            int r, c;
+            int attempts = 0;
+            do {
+                r = placementRandom.nextInt(maze.getRows());
+                c = placementRandom.nextInt(cols);
+                attempts++;
+                if (attempts > 100) {
+                    break;
+                }
+            } while (!isFreeCell(maze, grid, cells, placed, r, c));
+
+            if (isFreeCell(maze, grid, cells, placed, r, c)) {
+                cells[placed++] = r * cols + c;
+            }
+        }
+        
+        if (placed == count) {
+            return cells;
+        }
+        int[] trimmed = new int[placed];
+        System.arraycopy(cells, 0, trimmed, 0, placed);
+        return trimmed;
+    }
+    
+    private static boolean isFreeCell(MazeGenerator maze, MazeGrid grid, int[] cells, int placed, int r, int c) {
+        if (!grid.isWalkable(r, c)
+                || (r == maze.getStartRow() && c == maze.getStartCol())
+                || (r == maze.getExitRow() && c == maze.getExitCol())) {
+            return false;
+        }
+        int cell = r * maze.getCols() + c;
+        for (int i = 0; i < placed; i++) {
+            if (cells[i] == cell) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
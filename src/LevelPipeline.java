@@ -0,0 +1,164 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Keeps the next few levels generated on a background thread so the Event
+ * Dispatch Thread only has to take one off the queue, and never waits for
+ * one: if the worker is behind, the level is handed over when it is done.
+ * Levels come out in order, numbered from the first level passed to the
+ * constructor.
+ * 
+ * Every maze goes through the MazeCache, so replaying a level by the code
+ * shown to the player costs no generation while it is still cached.
+ *
+ * @author 11a5h
+ */
+public class LevelPipeline {
+    private final int size;
+    private final MazeCache mazeCache;
+    private final BlockingQueue<Level> ready;
+    private final SplittableRandom seedSource = new SplittableRandom();
+    private final Thread worker;
+    private int nextNumber;
+    // Set while the EDT waits for a level the worker has not finished.
+    private Consumer<Level> waiting;
+    
+    private volatile long lastGenerationNanos;
+    private volatile long totalGenerationNanos;
+    private volatile int generatedCount;
+    
+    public LevelPipeline(int size, int firstLevel, int depth, MazeCache mazeCache) {
+        this.size = size;
+        this.mazeCache = mazeCache;
+        this.ready = new ArrayBlockingQueue<>(depth);
+        this.nextNumber = firstLevel;
+        
+        this.worker = new Thread(this::run, "level-pipeline");
+        this.worker.setDaemon(true);
+        this.worker.setPriority(Thread.MIN_PRIORITY);
+    }
+    
+    public void start() {
+        worker.start();
+    }
+    
+    public void shutdown() {
+        worker.interrupt();
+    }
+    
+    /**
+     * Hands over the next level. Call on the EDT; onReady runs on the EDT,
+     * straight away if a level is ready, otherwise once the worker has one.
+     * A later call replaces a callback that is still waiting.
+     */
+    public void next(Consumer<Level> onReady) {
+        Level level = ready.poll();
+        if (level != null) {
+            onReady.accept(level);
+            return;
+        }
+        synchronized (this) {
+            waiting = onReady;
+        }
+        // The worker may have queued one between poll() and now.
+        deliverWaiting();
+    }
+    
+    /**
+     * Drops a callback still waiting in next(); the level it would have got
+     * stays queued for the next call.
+     */
+    public synchronized void cancelNext() {
+        waiting = null;
+    }
+    
+    /**
+     * The next level if one is ready, otherwise null.
+     */
+    public Level poll() {
+        return ready.poll();
+    }
+    
+    /**
+     * Rebuilds the level with the given maze seed, e.g. one the player typed
+     * in. Call on the EDT; onReady runs on the EDT, straight away when the
+     * maze is still cached, otherwise once a background thread has made it.
+     */
+    public void replay(long seed, int number, Consumer<Level> onReady) {
+        long started = System.nanoTime();
+        MazeGenerator cached = mazeCache.get(seed, size, size, MazeGenerator.Algorithm.DFS);
+        if (cached != null) {
+            onReady.accept(assemble(number, cached, started));
+            return;
+        }
+        
+        Thread loader = new Thread(() -> {
+            Level level = prepare(seed, number);
+            SwingUtilities.invokeLater(() -> onReady.accept(level));
+        }, "level-replay");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    public int getQueueDepth() {
+        return ready.size();
+    }
+    
+    public long getLastGenerationMillis() {
+        return lastGenerationNanos / 1_000_000;
+    }
+    
+    public long getAverageGenerationMillis() {
+        int count = generatedCount;
+        return count == 0 ? 0 : totalGenerationNanos / count / 1_000_000;
+    }
+    
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Level level = prepare(seedSource.nextLong(), nextNumber++);
+                lastGenerationNanos = level.getGenerationNanos();
+                totalGenerationNanos += level.getGenerationNanos();
+                generatedCount++;
+                ready.put(level);
+                deliverWaiting();
+            }
+        } catch (InterruptedException ex) {
+            // shutdown() was called
+        }
+    }
+    
+    private void deliverWaiting() {
+        Consumer<Level> onReady;
+        Level level;
+        synchronized (this) {
+            if (waiting == null || (level = ready.poll()) == null) {
+                return;
+            }
+            onReady = waiting;
+            waiting = null;
+        }
+        SwingUtilities.invokeLater(() -> onReady.accept(level));
+    }
+    
+    private Level prepare(long seed, int number) {
+        long started = System.nanoTime();
+        MazeGenerator maze = new MazeGenerator(size, size, seed, MazeGenerator.Algorithm.DFS);
+        mazeCache.put(maze);
+        return assemble(number, maze, started);
+    }
+    
+    private Level assemble(int number, MazeGenerator maze, long started) {
+        int[] cells = Level.placeCollectibles(maze, Level.collectibleCount(size, number));
+        maze.getExitDistanceField();
+        return new Level(number, maze, cells, System.nanoTime() - started);
+    }
+}
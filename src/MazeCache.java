@@ -0,0 +1,120 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Bounded LRU cache of finished mazes keyed by (seed, rows, cols, algorithm).
+ * Generation is deterministic for a key, so a hit is the same maze the
+ * generator would have produced.
+ * 
+ * A maze changed through MazeGenerator.setWalkable no longer matches its
+ * seed, so it is evicted on its first change. The grid version stored with
+ * each entry also catches a lookup that races with that change.
+ *
+ * @author 11a5h
+ */
+public class MazeCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits;
+    private long misses;
+    
+    public MazeCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > MazeCache.this.capacity;
+            }
+        };
+    }
+    
+    public synchronized MazeGenerator get(long seed, int rows, int cols, MazeGenerator.Algorithm algorithm) {
+        Key key = new Key(seed, rows, cols, algorithm);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version != entry.maze.getGrid().getVersion()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.maze;
+    }
+    
+    public synchronized void put(MazeGenerator maze) {
+        Key key = new Key(maze.getSeed(), maze.getRows(), maze.getCols(), maze.getAlgorithm());
+        Entry entry = new Entry(maze, maze.getGrid().getVersion());
+        entries.put(key, entry);
+        
+        maze.addChangeListener(new MazeChangeListener() {
+            @Override
+            public void onCellChanged(int row, int col, boolean walkable) {
+                evict(key, entry);
+                maze.removeChangeListener(this);
+            }
+        });
+    }
+    
+    private synchronized void evict(Key key, Entry entry) {
+        // Only if the key still holds this maze; it may have been replaced.
+        entries.remove(key, entry);
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    private static final class Entry {
+        final MazeGenerator maze;
+        final int version;
+        
+        Entry(MazeGenerator maze, int version) {
+            this.maze = maze;
+            this.version = version;
+        }
+    }
+    
+    private static final class Key {
+        final long seed;
+        final int rows, cols;
+        final MazeGenerator.Algorithm algorithm;
+        
+        Key(long seed, int rows, int cols, MazeGenerator.Algorithm algorithm) {
+            this.seed = seed;
+            this.rows = rows;
+            this.cols = cols;
+            this.algorithm = algorithm;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key key = (Key) obj;
+            return seed == key.seed && rows == key.rows && cols == key.cols && algorithm == key.algorithm;
+        }
+        
+        @Override
+        public int hashCode() {
+            int h = Long.hashCode(seed);
+            h = 31 * h + rows;
+            h = 31 * h + cols;
+            return 31 * h + algorithm.ordinal();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Told when a cell of a finished maze opens or closes, e.g. a door.
+ *
+ * @author 11a5h
+ */
+public interface MazeChangeListener {
+    
+    void onCellChanged(int row, int col, boolean walkable);
+}
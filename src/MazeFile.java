@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Binary level files. All values are big-endian.
+ * 
+ * <pre>
+ * header:  int magic 'TDVN', short version, short kind (1 = level, 2 = pack)
+ * level:   header, record
+ * pack:    header, int count, long[count] record offsets, records
+ * record:  int rows, cols, startRow, startCol, exitRow, exitCol,
+ *          long seed, int algorithm, int level number,
+ *          int coin count, int[coin count] coin cells,
+ *          long[rows * wordsPerRow] MazeGrid words
+ * </pre>
+ * 
+ * Reading maps only the part of the file that holds the requested record,
+ * so opening one level of a large pack touches just that level's pages.
+ * Every size, offset and cell read is checked first, so a damaged or cut-off
+ * file fails with an IOException.
+ *
+ * @author 11a5h
+ */
+public final class MazeFile {
+    static final int MAGIC = 0x5444564E;
+    static final short VERSION = 1;
+    static final short KIND_LEVEL = 1;
+    static final short KIND_PACK = 2;
+    private static final int HEADER_BYTES = 8;
+    // rows .. exitCol, seed, algorithm, level number, coin count
+    private static final int RECORD_FIXED_BYTES = 4 * 6 + 8 + 4 * 3;
+    
+    private MazeFile() {
+    }
+    
+    public static void writeLevel(Path path, Level level) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(KIND_LEVEL));
+            writeFully(channel, encode(level));
+        }
+    }
+    
+    public static Level readLevel(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkSize(channel, HEADER_BYTES);
+            checkHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES), KIND_LEVEL);
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, channel.size() - HEADER_BYTES));
+        }
+    }
+    
+    public static void writePack(Path path, List<Level> levels) throws IOException {
+        int count = levels.size();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer index = ByteBuffer.allocate(HEADER_BYTES + 4 + 8 * count);
+            index.put(header(KIND_PACK)).putInt(count);
+            
+            long offset = index.capacity();
+            channel.position(offset);
+            for (Level level : levels) {
+                index.putLong(offset);
+                ByteBuffer record = encode(level);
+                offset += record.remaining();
+                writeFully(channel, record);
+            }
+            
+            index.flip();
+            channel.position(0);
+            writeFully(channel, index);
+        }
+    }
+    
+    public static int readPackSize(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readPackCount(channel);
+        }
+    }
+    
+    public static Level readPackLevel(Path path, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int count = readPackCount(channel);
+            if (index < 0 || index >= count) {
+                throw new IOException("Không có màn " + index + " trong gói " + path + " (" + count + " màn)");
+            }
+            
+            // Only the two index slots around the record are read, then the record itself.
+            long slot = HEADER_BYTES + 4 + 8L * index;
+            MappedByteBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, slot, index + 1 < count ? 16 : 8);
+            long start = offsets.getLong();
+            long end = index + 1 < count ? offsets.getLong() : channel.size();
+            if (start < HEADER_BYTES + 4 + 8L * count || end < start || end > channel.size()) {
+                throw new IOException("Chỉ mục gói màn chơi bị hỏng: " + path);
+            }
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+        }
+    }
+    
+    /**
+     * Checks the pack header and that the whole offset table is in the file.
+     */
+    private static int readPackCount(FileChannel channel) throws IOException {
+        checkSize(channel, HEADER_BYTES + 4);
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + 4);
+        checkHeader(head, KIND_PACK);
+        int count = head.getInt();
+        if (count < 0) {
+            throw new IOException("Số màn trong gói không hợp lệ: " + count);
+        }
+        checkSize(channel, HEADER_BYTES + 4 + 8L * count);
+        return count;
+    }
+    
+    private static void checkSize(FileChannel channel, long needed) throws IOException {
+        if (channel.size() < needed) {
+            throw new IOException("File mê cung bị cắt ngắn: cần " + needed + " byte, có " + channel.size());
+        }
+    }
+    
+    private static ByteBuffer header(short kind) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putShort(kind);
+        header.flip();
+        return header;
+    }
+    
+    private static void checkHeader(ByteBuffer buffer, short kind) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Không phải file mê cung hợp lệ");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Phiên bản file mê cung không hỗ trợ: " + version);
+        }
+        if (buffer.getShort() != kind) {
+            throw new IOException(kind == KIND_PACK ? "File không phải gói màn chơi" : "File không phải một màn chơi");
+        }
+    }
+    
+    private static ByteBuffer encode(Level level) {
+        MazeGenerator maze = level.getMaze();
+        int[] cells = level.getCollectibleCells();
+        long[] words = maze.getGrid().words();
+        
+        ByteBuffer record = ByteBuffer.allocate(RECORD_FIXED_BYTES + 4 * cells.length + 8 * words.length);
+        record.putInt(maze.getRows()).putInt(maze.getCols())
+                .putInt(maze.getStartRow()).putInt(maze.getStartCol())
+                .putInt(maze.getExitRow()).putInt(maze.getExitCol())
+                .putLong(maze.getSeed())
+                .putInt(maze.getAlgorithm().ordinal())
+                .putInt(level.getNumber())
+                .putInt(cells.length);
+        record.asIntBuffer().put(cells);
+        record.position(record.position() + 4 * cells.length);
+        record.asLongBuffer().put(words);
+        record.position(record.capacity());
+        record.flip();
+        return record;
+    }
+    
+    private static Level decode(ByteBuffer record) throws IOException {
+        if (record.remaining() < RECORD_FIXED_BYTES) {
+            throw new IOException("Màn chơi bị cắt ngắn: " + record.remaining() + " byte");
+        }
+        int rows = record.getInt();
+        int cols = record.getInt();
+        int startRow = record.getInt();
+        int startCol = record.getInt();
+        int exitRow = record.getInt();
+        int exitCol = record.getInt();
+        long seed = record.getLong();
+        int ordinal = record.getInt();
+        int number = record.getInt();
+        int coinCount = record.getInt();
+        
+        if (rows <= 0 || cols <= 0) {
+            throw new IOException("Kích thước mê cung không hợp lệ: " + rows + "x" + cols);
+        }
+        if (!inBounds(startRow, startCol, rows, cols) || !inBounds(exitRow, exitCol, rows, cols)) {
+            throw new IOException("Điểm bắt đầu hoặc cửa ra nằm ngoài mê cung");
+        }
+        MazeGenerator.Algorithm[] algorithms = MazeGenerator.Algorithm.values();
+        if (ordinal < 0 || ordinal >= algorithms.length) {
+            throw new IOException("Thuật toán sinh mê cung không hợp lệ: " + ordinal);
+        }
+        long wordCount = (long) rows * ((cols + 63) >>> 6);
+        if (coinCount < 0 || record.remaining() != 4L * coinCount + 8 * wordCount) {
+            throw new IOException("Độ dài màn chơi không khớp với phần đầu: " + record.remaining() + " byte");
+        }
+        
+        int[] cells = new int[coinCount];
+        record.asIntBuffer().get(cells);
+        record.position(record.position() + 4 * cells.length);
+        for (int cell : cells) {
+            if (cell < 0 || cell >= (long) rows * cols) {
+                throw new IOException("Đồng xu nằm ngoài mê cung: ô " + cell);
+            }
+        }
+        
+        MazeGenerator.Algorithm algorithm = algorithms[ordinal];
+        MazeGrid grid = new MazeGrid(rows, cols);
+        record.asLongBuffer().get(grid.words());
+        
+        MazeGenerator maze = new MazeGenerator(grid, startRow, startCol, exitRow, exitCol, seed, algorithm);
+        return new Level(number, maze, cells, 0);
+    }
+    
+    private static boolean inBounds(int row, int col, int rows, int cols) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -1,7 +1,7 @@
-import java.awt.Image;
-import java.io.IOException;
-import java.util.Random;
-import javax.swing.ImageIcon;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 /*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
@@ -15,12 +15,24 @@ import javax.swing.ImageIcon;
 public class MazeGenerator {
     private int rows;
     private int cols;
-    private Cell[][] grid;
-    private Image[][] tileImages;
-    private Image wallImg, floorImg, startImg, exitImg;
+    private MazeGrid grid;
+    private long[] visited;
     private int startRow, startCol;
     private int exitRow, exitCol;
-    private Random random;
+    private SplittableRandom random;
+    private long seed;
+    private Algorithm algorithm;
+    private ExitDistanceField exitField;
+    private MazeTreeIndex treeIndex;
+    private JunctionGraph junctionGraph;
+    private HierarchicalPathFinder hierarchy;
+    private final List<MazeChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
+    // Carve steps jump two cells (over the wall between them); plain steps move one.
+    private static final int[] CARVE_DR = {-2, 0, 2, 0};
+    private static final int[] CARVE_DC = {0, 2, 0, -2};
+    private static final int[] STEP_DR = {-1, 1, 0, 0};
+    private static final int[] STEP_DC = {0, 0, -1, 1};
     
     public int getRows() {
         return rows;
@@ -46,93 +58,225 @@ public class MazeGenerator {
         return exitCol;
     }
     
-    public Cell[][] getGrid() {
+    public MazeGrid getGrid() {
         return grid;
     }
     
-    public static class Cell {
-        int value;
-        boolean visited;
-        
-        Cell() {
-            value = 0;
-            visited = false;
-        }
-        
-        public int getValue() {
-            return value;
-        }
+    public enum Algorithm {
+        DFS,
+        ELLER,
+        PARALLEL
     }
     
-    public MazeGenerator(int rows, int cols, String wallImgPath, String floorImgPath,
-            String startImgPath, String exitImgPath) throws IOException {
+    public MazeGenerator(int rows, int cols) {
+        this(rows, cols, new SplittableRandom().nextLong(), Algorithm.DFS);
+    }
+    
+    /**
+     * Wraps an already finished grid, e.g. one read back by MazeFile.
+     */
+    public MazeGenerator(MazeGrid grid, int startRow, int startCol, int exitRow, int exitCol,
+            long seed, Algorithm algorithm) {
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.grid = grid;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.exitRow = exitRow;
+        this.exitCol = exitCol;
+        this.seed = seed;
+        this.algorithm = algorithm;
+    }
+    
+    public MazeGenerator(int rows, int cols, long seed, Algorithm algorithm) {
         this.rows = rows;
         this.cols = cols;
-        this.random = new Random();
+        this.seed = seed;
+        // Carving draws from the first child stream; placement uses the second.
+        this.random = new SplittableRandom(seed).split();
+        this.algorithm = algorithm;
 
         this.startRow = 0;
         this.startCol = 0;
         this.exitRow = rows - 1;
         this.exitCol = cols - 1;
 
-        loadImages(wallImgPath, floorImgPath, startImgPath, exitImgPath);
+        grid = new MazeGrid(rows, cols);
 
-        grid = new Cell[rows][cols];
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                grid[r][c] = new Cell();
-            }
+        if (algorithm == Algorithm.ELLER) {
+            // Eller's rows already connect the exit, so no repair pass is needed.
+            new EllerMazeGenerator(rows, cols, random).generate(grid::setRow);
         }
+        else if (algorithm == Algorithm.PARALLEL) {
+            new ParallelMazeGenerator(grid, random, ForkJoinPool.commonPool()).generate();
+            openExitCorridor();
+        }
+        else {
+            // Generation-only scratch; dropped once the maze is finished.
+            visited = new long[rows * grid.getWordsPerRow()];
 
-        generateMaze();
-        
-        grid[exitRow][exitCol].value = 1;
+            generateMaze();
+
+            grid.setWalkable(exitRow, exitCol);
 
-        ensurePathToExit();
+            ensurePathToExit();
 
-        createTileImages();
+            visited = null;
+        }
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Fresh random stream for placing items in this maze. Same seed, same stream.
+     */
+    public SplittableRandom createPlacementRandom() {
+        SplittableRandom root = new SplittableRandom(seed);
+        root.split();
+        return root.split();
     }
     
-    private void loadImages(String wallImgPath, String floorImgPath, 
-            String startImgPath, String exitImgPath) throws IOException {
-        try {
-            ClassLoader classLoader = getClass().getClassLoader();
-            wallImg = new ImageIcon(classLoader.getResource(wallImgPath)).getImage();
-            floorImg = new ImageIcon(classLoader.getResource(floorImgPath)).getImage();
-            startImg = new ImageIcon(classLoader.getResource(startImgPath)).getImage();
-            exitImg = new ImageIcon(classLoader.getResource(exitImgPath)).getImage();
-        } catch (Exception e) {
-            throw new IOException("Không thể đọc file hình ảnh: " + e.getMessage());
+    /**
+     * Distances to the exit, built on first use. LevelPipeline builds it in
+     * the background so the game never pays for it.
+     */
+    public synchronized ExitDistanceField getExitDistanceField() {
+        if (exitField == null) {
+            exitField = new ExitDistanceField(grid, exitRow, exitCol);
         }
+        return exitField;
+    }
+    
+    /**
+     * Tree index rooted at the start cell, built on first use.
+     */
+    public synchronized MazeTreeIndex getTreeIndex() {
+        if (treeIndex == null) {
+            treeIndex = new MazeTreeIndex(grid, startRow, startCol);
+        }
+        return treeIndex;
+    }
+    
+    /**
+     * Corridor-contracted graph of the maze, built on first use.
+     */
+    public synchronized JunctionGraph getJunctionGraph() {
+        if (junctionGraph == null) {
+            junctionGraph = new JunctionGraph(grid);
+        }
+        return junctionGraph;
+    }
+    
+    /**
+     * Cluster entrances and their distances for HPA*, built on first use.
+     */
+    public synchronized HierarchicalPathFinder getHierarchicalPathFinder() {
+        if (hierarchy == null) {
+            hierarchy = new HierarchicalPathFinder(grid);
+        }
+        return hierarchy;
+    }
+    
+    /**
+     * Opens or closes one cell after generation, e.g. a door or a shifting
+     * wall. Bumps the grid version and drops the structures built from the
+     * old layout (they are rebuilt on next use), then tells the listeners.
+     */
+    public void setWalkable(int row, int col, boolean walkable) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException("cell outside the maze: " + row + "," + col);
+        }
+        synchronized (this) {
+            if (grid.isWalkable(row, col) == walkable) {
+                return;
+            }
+            grid.update(row, col, walkable);
+            exitField = null;
+            treeIndex = null;
+            junctionGraph = null;
+            hierarchy = null;
+        }
+        for (MazeChangeListener listener : changeListeners) {
+            listener.onCellChanged(row, col, walkable);
+        }
+    }
+    
+    public void addChangeListener(MazeChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    public void removeChangeListener(MazeChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    public Algorithm getAlgorithm() {
+        return algorithm;
     }
-      
+    
     private void generateMaze() {
-        grid[startRow][startCol].value = 1;
-        grid[exitRow][exitCol].value = 1;
+        grid.setWalkable(startRow, startCol);
+        grid.setWalkable(exitRow, exitCol);
 
         DFS(startRow, startCol);
 
-        if (!grid[exitRow][exitCol].visited) {
+        if (!isVisited(exitRow, exitCol)) {
             connectToMaze(exitRow, exitCol);
         }
     }
     
     private void DFS(int r, int c) {
-        grid[r][c].visited = true;
-        grid[r][c].value = 1;
+        // Iterative backtracker: the stack holds flat cell indices (r * cols + c)
+        // so the carve depth is no longer bounded by the thread stack.
+        int[] stack = new int[((rows + 1) / 2) * ((cols + 1) / 2)];
+        int[] candidates = new int[4];
+        int top = 0;
+
+        markVisited(r, c);
+        grid.setWalkable(r, c);
+        stack[top++] = r * cols + c;
 
-        int[][] directions = {{-2,0}, {0,2}, {2,0}, {0,-2}};
+        while (top > 0) {
+            int current = stack[top - 1];
+            int curR = current / cols;
+            int curC = current % cols;
 
-        shuffleArray(directions);
+            int count = 0;
+            for (int d = 0; d < 4; d++) {
+                int newR = curR + CARVE_DR[d];
+                int newC = curC + CARVE_DC[d];
 
-        for (int[] dir : directions) {
-            int newR = r + dir[0];
-            int newC = c + dir[1];
+                if (newR >= 0 && newR < rows && newC >= 0 && newC < cols && !isVisited(newR, newC)) {
+                    candidates[count++] = d;
+                }
+            }
 
-            if (newR >= 0 && newR < rows && newC >= 0 && newC < cols && !grid[newR][newC].visited) {
-                grid[r + dir[0]/2][c + dir[1]/2].value = 1;
-                DFS(newR, newC);
+            if (count == 0) {
+                top--;
+                continue;
             }
+
+            int d = candidates[random.nextInt(count)];
+            int newR = curR + CARVE_DR[d];
+            int newC = curC + CARVE_DC[d];
+
+            grid.setWalkable(curR + CARVE_DR[d] / 2, curC + CARVE_DC[d] / 2);
+            markVisited(newR, newC);
+            grid.setWalkable(newR, newC);
+            stack[top++] = newR * cols + newC;
+        }
+    }
+    
+    private void openExitCorridor() {
+        // Cells sit on even coordinates; an odd exit row or column is bridged
+        // from the nearest cell of the last cell row.
+        int lastCellRow = rows - 1 - (rows - 1) % 2;
+        if ((cols - 1) % 2 != 0) {
+            grid.setWalkable(lastCellRow, cols - 1);
+        }
+        if ((rows - 1) % 2 != 0) {
+            grid.setWalkable(rows - 1, cols - 1);
         }
     }
     
@@ -153,7 +297,7 @@ public class MazeGenerator {
             int c = neighbor[1];
             
             if (r >= 0 && r < rows && c >= 0 && c < cols) {
-                if (grid[r][c].value == 1) {
+                if (grid.isWalkable(r, c)) {
                     pathCreated = true;
                     break;
                 }
@@ -166,7 +310,7 @@ public class MazeGenerator {
                 int c = neighbor[1];
                 
                 if (r >= 0 && r < rows && c >= 0 && c < cols) {
-                    grid[r][c].value = 1;
+                    grid.setWalkable(r, c);
                     connectToMaze(r, c);
                     pathCreated = true;
                     break;
@@ -176,47 +320,57 @@ public class MazeGenerator {
     }
     
     private void connectToMaze(int r, int c) {
-        if (r < 0 || r >= rows || c < 0 || c >= cols) {
-            return;
-        }
-        
-        grid[r][c].value = 1;
-        grid[r][c].visited = true;
+        int[] order = {0, 1, 2, 3};
 
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        
-        for (int[] dir : directions) {
-            int newR = r + dir[0];
-            int newC = c + dir[1];
+        // Random walk until a visited cell is adjacent; replaces the old tail recursion.
+        while (r >= 0 && r < rows && c >= 0 && c < cols) {
+            grid.setWalkable(r, c);
+            markVisited(r, c);
 
-            if (newR >= 0 && newR < rows && newC >= 0 && newC < cols
-                && grid[newR][newC].value == 1
-                && grid[newR][newC].visited) {
-                return;
-            }
-        }
-        
-        shuffleArray(directions);
-        for (int[] dir : directions) {
-            int newR = r + dir[0], newC = c + dir[1];
-
-            if (newR >= 0 && newR < rows && newC >= 0 && newC < cols) {
-                if (grid[newR][newC].visited) return;
-                else {
-                    grid[newR][newC].value = 1;
-                    connectToMaze(newR, newC);
+            for (int d = 0; d < 4; d++) {
+                int newR = r + STEP_DR[d];
+                int newC = c + STEP_DC[d];
+
+                if (newR >= 0 && newR < rows && newC >= 0 && newC < cols
+                    && grid.isWalkable(newR, newC)
+                    && isVisited(newR, newC)) {
                     return;
                 }
             }
+
+            shuffleOrder(order);
+            int next = -1;
+            for (int d : order) {
+                int newR = r + STEP_DR[d], newC = c + STEP_DC[d];
+
+                if (newR >= 0 && newR < rows && newC >= 0 && newC < cols) {
+                    next = d;
+                    break;
+                }
+            }
+
+            if (next < 0 || isVisited(r + STEP_DR[next], c + STEP_DC[next])) {
+                return;
+            }
+            r += STEP_DR[next];
+            c += STEP_DC[next];
         }
     }
     
-    private void shuffleArray(int[][] array) {
-        for (int i = array.length - 1; i > 0; i--) {
+    private boolean isVisited(int r, int c) {
+        return (visited[r * grid.getWordsPerRow() + (c >>> 6)] & (1L << c)) != 0;
+    }
+    
+    private void markVisited(int r, int c) {
+        visited[r * grid.getWordsPerRow() + (c >>> 6)] |= 1L << c;
+    }
+    
+    private void shuffleOrder(int[] order) {
+        for (int i = order.length - 1; i > 0; i--) {
             int j = random.nextInt(i + 1);
-            int[] temp = array[i];
-            array[i] = array[j];
-            array[j] = temp;
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
         }
     }
     
@@ -228,26 +382,4 @@ public class MazeGenerator {
             neighbors[j] = temp;
         }
     }
-    
-    private void createTileImages() {
-        tileImages = new Image[rows][cols];
-        
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                if (r == startRow && c == startCol) {
-                    tileImages[r][c] = startImg; 
-                } 
-                else if (r == exitRow && c == exitCol) {
-                    tileImages[r][c] = exitImg;
-                } 
-                else {
-                    tileImages[r][c] = (grid[r][c].value == 1) ? floorImg : wallImg;
-                }
-            }
-        }
-    }
-    
-    public Image[][] getTileImages() {
-        return tileImages;
-    }
 }
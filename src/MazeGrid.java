@@ -0,0 +1,103 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Walkability of a maze stored as one bit per cell. Every row starts on a
+ * fresh word so a row can be read or written as a block of longs.
+ * 
+ * Reads are not synchronised with update(): a search running on another
+ * thread while a cell changes may see either state of that cell. The
+ * version is volatile and bumped after the cell is written, so a thread
+ * that reads the new version also sees the new cell. Caches should read the
+ * version before computing from the grid and store that one, so a result
+ * that overlapped a change is dropped rather than served.
+ *
+ * @author 11a5h
+ */
+public class MazeGrid {
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+    private final long[] bits;
+    private volatile int version;
+    
+    public MazeGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        this.bits = new long[rows * wordsPerRow];
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+    
+    /**
+     * Bumped on every change through update(), so caches can tell their data is stale.
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    public boolean isWalkable(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        return (bits[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+    
+    void setWalkable(int row, int col) {
+        bits[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+    }
+    
+    void clearWalkable(int row, int col) {
+        bits[row * wordsPerRow + (col >>> 6)] &= ~(1L << col);
+    }
+    
+    void setRow(int row, long[] words) {
+        System.arraycopy(words, 0, bits, row * wordsPerRow, wordsPerRow);
+    }
+    
+    /**
+     * Marks walkable the cells of a run of up to 64 bits placed at col; bit i
+     * of run is cell col + i, which must lie inside the row.
+     */
+    void orBits(int row, int col, long run) {
+        int word = row * wordsPerRow + (col >>> 6);
+        int shift = col & 63;
+        bits[word] |= run << shift;
+        if (shift != 0 && (run >>> (64 - shift)) != 0) {
+            bits[word + 1] |= run >>> (64 - shift);
+        }
+    }
+    
+    /**
+     * Changes one cell of a finished maze and bumps the version. The plain
+     * setters above are for generators filling a fresh grid, some of them
+     * from several threads, and leave the version alone. Callers serialise
+     * updates (MazeGenerator.setWalkable holds the maze's lock).
+     */
+    void update(int row, int col, boolean walkable) {
+        if (walkable) {
+            setWalkable(row, col);
+        }
+        else {
+            clearWalkable(row, col);
+        }
+        version++;
+    }
+    
+    long[] words() {
+        return bits;
+    }
+}
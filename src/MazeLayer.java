@@ -0,0 +1,75 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * The static tiles of a maze, rendered once into an image in the screen's
+ * own format so each repaint is a single blit. The image is rebuilt only
+ * when the maze, its layout version or the cell size changes.
+ * 
+ * A compatible BufferedImage rather than a VolatileImage: Java2D already
+ * keeps an accelerated copy of it, and it cannot lose its contents.
+ *
+ * @author 11a5h
+ */
+public class MazeLayer {
+    private final TileAssets assets;
+    
+    private BufferedImage image;
+    private MazeGenerator maze;
+    private int version;
+    private int cellSize;
+    
+    public MazeLayer(TileAssets assets) {
+        this.assets = assets;
+    }
+    
+    /**
+     * Draws the maze tiles, rendering them first if the cached copy is stale.
+     * 
+     * @param background shows through the start cell, which has no tile
+     */
+    public void paint(Graphics g, MazeGenerator maze, int cellSize, Color background) {
+        if (image == null || this.maze != maze || this.cellSize != cellSize
+                || version != maze.getGrid().getVersion()) {
+            render(((Graphics2D) g).getDeviceConfiguration(), maze, cellSize, background);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+    
+    /**
+     * Drops the cached image, e.g. when the level is left.
+     */
+    public void invalidate() {
+        if (image != null) {
+            image.flush();
+        }
+        image = null;
+        maze = null;
+    }
+    
+    private void render(GraphicsConfiguration config, MazeGenerator maze, int cellSize, Color background) {
+        invalidate();
+        int width = maze.getCols() * cellSize;
+        int height = maze.getRows() * cellSize;
+        image = config.createCompatibleImage(Math.max(1, width), Math.max(1, height), Transparency.OPAQUE);
+        
+        Graphics2D g = image.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, width, height);
+        assets.paintMaze(g, maze, cellSize);
+        g.dispose();
+        
+        this.maze = maze;
+        this.cellSize = cellSize;
+        this.version = maze.getGrid().getVersion();
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.Arrays;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Path queries between any two cells of a perfect maze. The maze is a tree,
+ * so the path between two cells is unique and runs through their lowest
+ * common ancestor (LCA).
+ * 
+ * The tree is rooted at a BFS from the start cell. Each cell stores its
+ * parent, its depth and one jump pointer, the skew-binary form of binary
+ * lifting. That is O(n) memory instead of O(n log n), and ancestor and LCA
+ * queries take O(log n). Cells are flat indices (row * cols + col).
+ * 
+ * On a maze with loops the answers follow the BFS tree, so they are upper
+ * bounds rather than shortest distances; isPerfect() tells which case applies.
+ *
+ * @author 11a5h
+ */
+public class MazeTreeIndex {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    
+    private final int cols;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] jump;
+    private final boolean perfect;
+    
+    public MazeTreeIndex(MazeGrid grid, int rootRow, int rootCol) {
+        int rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.parent = new int[rows * cols];
+        this.depth = new int[rows * cols];
+        this.jump = new int[rows * cols];
+        Arrays.fill(depth, -1);
+        
+        long nodes = 0, edges = 0;
+        if (grid.isWalkable(rootRow, rootCol)) {
+            // BFS order means every parent is linked before its children,
+            // which the jump pointer rule needs.
+            int root = rootRow * cols + rootCol;
+            int[] queue = new int[rows * cols];
+            int head = 0, tail = 0;
+            parent[root] = root;
+            jump[root] = root;
+            depth[root] = 0;
+            queue[tail++] = root;
+            
+            while (head < tail) {
+                int current = queue[head++];
+                int row = current / cols;
+                int col = current - row * cols;
+                nodes++;
+                
+                for (int d = 0; d < 4; d++) {
+                    int newRow = row + DR[d];
+                    int newCol = col + DC[d];
+                    if (!grid.isWalkable(newRow, newCol)) {
+                        continue;
+                    }
+                    // Each open edge is seen from both ends.
+                    edges++;
+                    int next = newRow * cols + newCol;
+                    if (depth[next] >= 0) {
+                        continue;
+                    }
+                    link(next, current);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        this.perfect = edges / 2 == nodes - 1;
+    }
+    
+    private void link(int child, int p) {
+        parent[child] = p;
+        depth[child] = depth[p] + 1;
+        int j = jump[p];
+        jump[child] = depth[p] - depth[j] == depth[j] - depth[jump[j]] ? jump[j] : p;
+    }
+    
+    /**
+     * True if the part of the maze reachable from the root has no loops.
+     */
+    public boolean isPerfect() {
+        return perfect;
+    }
+    
+    public boolean isReachable(int cell) {
+        return depth[cell] >= 0;
+    }
+    
+    public int ancestorAtDepth(int cell, int targetDepth) {
+        while (depth[cell] > targetDepth) {
+            cell = depth[jump[cell]] >= targetDepth ? jump[cell] : parent[cell];
+        }
+        return cell;
+    }
+    
+    /**
+     * Lowest common ancestor of two reachable cells.
+     */
+    public int lca(int a, int b) {
+        if (depth[a] < depth[b]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        a = ancestorAtDepth(a, depth[b]);
+        while (a != b) {
+            if (jump[a] != jump[b]) {
+                a = jump[a];
+                b = jump[b];
+            }
+            else {
+                a = parent[a];
+                b = parent[b];
+            }
+        }
+        return a;
+    }
+    
+    /**
+     * Number of steps between two cells, or -1 if either is unreachable.
+     */
+    public int distance(int a, int b) {
+        if (!isReachable(a) || !isReachable(b)) {
+            return -1;
+        }
+        return depth[a] + depth[b] - 2 * depth[lca(a, b)];
+    }
+    
+    public int distance(int rowA, int colA, int rowB, int colB) {
+        return distance(rowA * cols + colA, rowB * cols + colB);
+    }
+    
+    /**
+     * Cells from a to b, both ends included, in time proportional to the
+     * path length. Empty if either cell is unreachable.
+     */
+    public int[] path(int a, int b) {
+        if (!isReachable(a) || !isReachable(b)) {
+            return new int[0];
+        }
+        int meet = lca(a, b);
+        int up = depth[a] - depth[meet];
+        int[] cells = new int[up + depth[b] - depth[meet] + 1];
+        
+        int i = 0;
+        for (int cell = a; cell != meet; cell = parent[cell]) {
+            cells[i++] = cell;
+        }
+        cells[i] = meet;
+        i = cells.length - 1;
+        for (int cell = b; cell != meet; cell = parent[cell]) {
+            cells[i--] = cell;
+        }
+        return cells;
+    }
+    
+    /**
+     * Distances from one cell to many, e.g. the player to every coin.
+     */
+    public int[] distances(int from, int[] targets) {
+        int[] result = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            result[i] = distance(from, targets[i]);
+        }
+        return result;
+    }
+}
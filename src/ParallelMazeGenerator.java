@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Carves a maze as independent tiles on a ForkJoinPool, then stitches the
+ * tiles with one passage per edge of a random spanning tree over the tiles,
+ * so the result is still a perfect maze.
+ * 
+ * Tile widths are multiples of 64 cells, so no two tiles ever write to the
+ * same MazeGrid word and the workers need no locking.
+ *
+ * @author 11a5h
+ */
+public class ParallelMazeGenerator {
+    static final int TILE_SIZE = 128;
+    
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    
+    private final MazeGrid grid;
+    private final int rows;
+    private final int cols;
+    private final SplittableRandom random;
+    private final ForkJoinPool pool;
+    
+    public ParallelMazeGenerator(MazeGrid grid, SplittableRandom random, ForkJoinPool pool) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.random = random;
+        this.pool = pool;
+    }
+    
+    public void generate() {
+        int tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+        int tileCols = (cols + TILE_SIZE - 1) / TILE_SIZE;
+        
+        // Tile streams are split off up front so the result does not depend on scheduling.
+        List<Tile> tiles = new ArrayList<>(tileRows * tileCols);
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                tiles.add(new Tile(tr * TILE_SIZE, tc * TILE_SIZE, random.split()));
+            }
+        }
+        
+        pool.invoke(new CarveTask(tiles, 0, tiles.size()));
+        
+        stitch(tileRows, tileCols);
+    }
+    
+    private void stitch(int tileRows, int tileCols) {
+        int count = tileRows * tileCols;
+        int[] edges = new int[2 * count];
+        int edgeCount = 0;
+        
+        // Edge code: tile index * 2, +1 for the link to the tile below, +0 for the one to the right.
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                int t = tr * tileCols + tc;
+                if (tc + 1 < tileCols) {
+                    edges[edgeCount++] = t * 2;
+                }
+                if (tr + 1 < tileRows) {
+                    edges[edgeCount++] = t * 2 + 1;
+                }
+            }
+        }
+        
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = temp;
+        }
+        
+        int[] parent = new int[count];
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+        }
+        
+        for (int e = 0; e < edgeCount; e++) {
+            int t = edges[e] >>> 1;
+            boolean vertical = (edges[e] & 1) != 0;
+            int other = vertical ? t + tileCols : t + 1;
+            
+            int a = find(parent, t);
+            int b = find(parent, other);
+            if (a == b) {
+                continue;
+            }
+            parent[b] = a;
+            
+            int r0 = (t / tileCols) * TILE_SIZE;
+            int c0 = (t % tileCols) * TILE_SIZE;
+            if (vertical) {
+                int c = c0 + 2 * random.nextInt(cellsAcross(c0, cols));
+                grid.setWalkable(r0 + TILE_SIZE - 1, c);
+            }
+            else {
+                int r = r0 + 2 * random.nextInt(cellsAcross(r0, rows));
+                grid.setWalkable(r, c0 + TILE_SIZE - 1);
+            }
+        }
+    }
+    
+    private static int cellsAcross(int from, int limit) {
+        return (Math.min(from + TILE_SIZE, limit) - from + 1) / 2;
+    }
+    
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+    
+    private class Tile {
+        final int row0, col0;
+        final SplittableRandom tileRandom;
+        
+        Tile(int row0, int col0, SplittableRandom tileRandom) {
+            this.row0 = row0;
+            this.col0 = col0;
+            this.tileRandom = tileRandom;
+        }
+        
+        void carve() {
+            int h = cellsAcross(row0, rows);
+            int w = cellsAcross(col0, cols);
+            boolean[] visited = new boolean[h * w];
+            int[] stack = new int[h * w];
+            int[] candidates = new int[4];
+            int top = 0;
+            
+            visited[0] = true;
+            grid.setWalkable(row0, col0);
+            stack[top++] = 0;
+            
+            while (top > 0) {
+                int current = stack[top - 1];
+                int i = current / w;
+                int j = current % w;
+                
+                int count = 0;
+                for (int d = 0; d < 4; d++) {
+                    int ni = i + DR[d];
+                    int nj = j + DC[d];
+                    if (ni >= 0 && ni < h && nj >= 0 && nj < w && !visited[ni * w + nj]) {
+                        candidates[count++] = d;
+                    }
+                }
+                
+                if (count == 0) {
+                    top--;
+                    continue;
+                }
+                
+                int d = candidates[tileRandom.nextInt(count)];
+                int ni = i + DR[d];
+                int nj = j + DC[d];
+                
+                grid.setWalkable(row0 + 2 * i + DR[d], col0 + 2 * j + DC[d]);
+                grid.setWalkable(row0 + 2 * ni, col0 + 2 * nj);
+                visited[ni * w + nj] = true;
+                stack[top++] = ni * w + nj;
+            }
+        }
+    }
+    
+    private static class CarveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        // Tasks only live inside one generate() call and are never serialized.
+        private final transient List<Tile> tiles;
+        private final int from, to;
+        
+        CarveTask(List<Tile> tiles, int from, int to) {
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                tiles.get(from).carve();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CarveTask(tiles, from, mid), new CarveTask(tiles, mid, to));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Bounded LRU cache of solved paths keyed by (maze, start, goal). The maze
+ * is matched by identity and held weakly, so the cache never keeps an old
+ * level alive. An entry remembers the grid version it was solved on and is
+ * dropped once the grid has changed.
+ * 
+ * Paths are stored as 2-bit step directions, 32 steps per long, and the
+ * budget is counted in those bytes plus a fixed overhead per entry.
+ * Cells are flat indices (row * cols + col).
+ *
+ * @author 11a5h
+ */
+public class PathCache {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    private static final int ENTRY_OVERHEAD = 64;
+    
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    
+    public PathCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * The cached path from start to goal, both included, or null on a miss.
+     */
+    public synchronized int[] get(MazeGrid grid, int start, int goal) {
+        Key key = new Key(grid, start, goal);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version != grid.getVersion()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.decode(start, grid.getCols());
+    }
+    
+    /**
+     * Stores a shortest path. Any mode may be served it, so approximate
+     * results (PathFinder.Mode.HIERARCHICAL) must not be put here.
+     * 
+     * @param version the grid version read before the path was searched; if
+     *                the grid changed during the search the entry is never served
+     */
+    public synchronized void put(MazeGrid grid, int version, int start, int goal, int[] path) {
+        if (path.length == 0 || version != grid.getVersion()) {
+            return;
+        }
+        Entry entry = new Entry(version, path, grid.getCols());
+        if (entry.bytes() > maxBytes) {
+            return;
+        }
+        
+        Key key = new Key(grid, start, goal);
+        remove(key);
+        entries.put(key, entry);
+        usedBytes += entry.bytes();
+        
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes) {
+            usedBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+    
+    /**
+     * Drops every entry for the given maze.
+     */
+    public synchronized void invalidate(MazeGrid grid) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().grid.get() == grid) {
+                usedBytes -= e.getValue().bytes();
+                it.remove();
+            }
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    private void remove(Key key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            usedBytes -= old.bytes();
+        }
+    }
+    
+    private static final class Entry {
+        final int version;
+        final int steps;
+        final long[] codes;
+        
+        Entry(int version, int[] path, int cols) {
+            this.version = version;
+            this.steps = path.length - 1;
+            this.codes = new long[(steps + 31) >>> 5];
+            for (int i = 0; i < steps; i++) {
+                int delta = path[i + 1] - path[i];
+                long code = delta == -cols ? 0 : delta == 1 ? 1 : delta == cols ? 2 : 3;
+                codes[i >>> 5] |= code << ((i & 31) << 1);
+            }
+        }
+        
+        int[] decode(int start, int cols) {
+            int[] path = new int[steps + 1];
+            path[0] = start;
+            for (int i = 0; i < steps; i++) {
+                int code = (int) (codes[i >>> 5] >>> ((i & 31) << 1)) & 3;
+                path[i + 1] = path[i] + DR[code] * cols + DC[code];
+            }
+            return path;
+        }
+        
+        long bytes() {
+            return ENTRY_OVERHEAD + 8L * codes.length;
+        }
+    }
+    
+    private static final class Key {
+        final WeakReference<MazeGrid> grid;
+        final int gridHash;
+        final int start, goal;
+        
+        Key(MazeGrid grid, int start, int goal) {
+            this.grid = new WeakReference<>(grid);
+            this.gridHash = System.identityHashCode(grid);
+            this.start = start;
+            this.goal = goal;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key key = (Key) obj;
+            MazeGrid mine = grid.get();
+            return mine != null && mine == key.grid.get() && start == key.start && goal == key.goal;
+        }
+        
+        @Override
+        public int hashCode() {
+            int h = gridHash;
+            h = 31 * h + start;
+            return 31 * h + goal;
+        }
+    }
+}
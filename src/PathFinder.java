@@ -1,11 +1,10 @@
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import javax.swing.ImageIcon;
 
 /*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
@@ -18,16 +17,96 @@ import javax.swing.ImageIcon;
  */
 public class PathFinder {
     private MazeGenerator maze;
-    private int[][] grid;
-    private boolean[][] visited;
+    private MazeGrid grid;
     private int rows, cols;
     private int startRow, startCol;
     private int exitRow, exitCol;
     private List<Node> path;
-    private List<Node> exploredNodes;
+    private int[] pathCells = new int[0];
+    // One bit per flat cell index, set for every cell the search expanded.
+    private long[] exploredBits = new long[0];
+    private int expandedCount;
+    private boolean keepExplored = true;
+    private Mode mode = Mode.ASTAR;
+    private SearchListener listener;
+    private PathCache pathCache;
+    private int backwardExpanded;
     
-    public List<Node> getExploredNodes() {
-        return exploredNodes;
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+    
+    public boolean isExplored(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        int cell = row * cols + col;
+        return exploredBits.length > 0 && (exploredBits[cell >>> 6] & (1L << cell)) != 0;
+    }
+    
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+    
+    /**
+     * Cells expanded from the start side. Equals getExpandedCount() except in
+     * BIDIRECTIONAL mode, where the rest came from the exit side.
+     */
+    public int getForwardExpandedCount() {
+        return expandedCount - backwardExpanded;
+    }
+    
+    public int getBackwardExpandedCount() {
+        return backwardExpanded;
+    }
+    
+    public enum Mode {
+        /** Plain A* over every cell. */
+        ASTAR,
+        /** Jump Point Search: A* over corridor ends and forced neighbours only. */
+        JPS,
+        /** Breadth-first search grown from both ends until the frontiers meet. */
+        BIDIRECTIONAL,
+        /**
+         * No search: walks down the maze's precomputed ExitDistanceField.
+         * Needs a MazeGenerator and the maze's own exit as the target;
+         * otherwise falls back to ASTAR.
+         */
+        EXIT_FIELD,
+        /**
+         * Dijkstra over the maze's JunctionGraph, corridors collapsed to
+         * single edges. Needs a MazeGenerator; otherwise falls back to ASTAR.
+         */
+        JUNCTIONS,
+        /**
+         * HPA* over the maze's cluster entrances, refined inside the clusters
+         * on the route. Needs a MazeGenerator; otherwise falls back to ASTAR.
+         * Paths may be a few steps longer than the shortest, so they are
+         * read from a PathCache but never stored in it.
+         */
+        HIERARCHICAL
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+    
+    /**
+     * Cache consulted before searching and filled after, or null for none.
+     * A hit expands no cells.
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+    
+    /**
+     * Listener for the next searches, or null for none.
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
     }
 
     public List<Node> getPath() {
@@ -64,128 +143,524 @@ public class PathFinder {
     }
     
     public PathFinder(MazeGenerator maze, int startRow, int startCol, int exitRow, int exitCol) {
+        this(maze.getGrid(), startRow, startCol, exitRow, exitCol);
         this.maze = maze;
-        this.rows = maze.getRows();
-        this.cols = maze.getCols();
+    }
+    
+    public PathFinder(MazeGrid grid, int startRow, int startCol, int exitRow, int exitCol) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
         this.startRow = startRow;
         this.startCol = startCol;
         this.exitRow = exitRow;
         this.exitCol = exitCol;
         
-        createGridCopy();
-        
         this.path = new ArrayList<>();
-        this.exploredNodes = new ArrayList<>();
     }
     
-    private void createGridCopy() {
-        grid = new int[rows][cols];
-        MazeGenerator.Cell[][] mazeGrid = maze.getGrid();
-        
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                // Use the maze's grid directly to check walkable positions
-                grid[r][c] = mazeGrid[r][c].getValue();
-            }
+    public List<Node> findPath() {
+        if (search(SearchScratch.forCurrentThread())) {
+            buildPathNodes();
+            return path;
+        } 
+        else {
+            return Collections.emptyList();
         }
     }
     
-    public List<Node> findPath() {
+    /**
+     * Runs the search with the given buffers and leaves the result in
+     * getPathCells() without building Node objects.
+     */
+    boolean search(SearchScratch scratch) {
         resetSearch();
         
-        visited = new boolean[rows][cols];
-        Node startNode = new Node(startRow, startCol);
-        startNode.h = calculateHeuristic(startRow, startCol);
+        int start = startRow * cols + startCol;
+        int goal = exitRow * cols + exitCol;
         
-        boolean found = hillClimbingWithBacktracking(startNode);
+        boolean found = false;
+        // Only shortest paths go into the cache; other modes may reuse them.
+        boolean shortest = true;
+        int version = grid.getVersion();
+        if (grid.isWalkable(startRow, startCol) && grid.isWalkable(exitRow, exitCol)) {
+            int[] cached = pathCache != null ? pathCache.get(grid, start, goal) : null;
+            if (cached != null) {
+                pathCells = cached;
+                found = true;
+                scratch.exploredCount = 0;
+            }
+            else if (mode == Mode.EXIT_FIELD && maze != null
+                    && exitRow == maze.getExitRow() && exitCol == maze.getExitCol()) {
+                pathCells = maze.getExitDistanceField().pathFrom(startRow, startCol);
+                found = pathCells.length > 0;
+                scratch.exploredCount = 0;
+            }
+            else if (mode == Mode.JUNCTIONS && maze != null) {
+                pathCells = maze.getJunctionGraph().findPath(start, goal, scratch);
+                found = pathCells.length > 0;
+                replayExpanded(scratch);
+            }
+            else if (mode == Mode.HIERARCHICAL && maze != null) {
+                pathCells = maze.getHierarchicalPathFinder().findPath(start, goal, scratch);
+                found = pathCells.length > 0;
+                shortest = false;
+                replayExpanded(scratch);
+            }
+            else if (mode == Mode.BIDIRECTIONAL) {
+                found = bidirectionalSearch(scratch, goal);
+            }
+            else {
+                found = mode == Mode.JPS ? jumpPointSearch(scratch, goal) : aStar(scratch, goal);
+                if (found) {
+                    reconstructPath(scratch, goal);
+                }
+            }
+            recordExplored(scratch);
+            if (found && shortest && cached == null && pathCache != null) {
+                pathCache.put(grid, version, start, goal, pathCells);
+            }
+        }
         
-        if (found) {
-            return path;
-        } 
-        else {
-            return Collections.emptyList();
+        if (found && listener != null) {
+            listener.onFound(pathCells);
         }
+        return found;
     }
     
-    private boolean hillClimbingWithBacktracking(Node current) {
-        visited[current.row][current.col] = true;
-        exploredNodes.add(current);
+    /**
+     * Whether search() keeps the explored bitset for drawing. Batch solving
+     * turns it off; the expanded count is kept either way.
+     */
+    void setKeepExplored(boolean keepExplored) {
+        this.keepExplored = keepExplored;
+    }
+    
+    /**
+     * Cells of the last path found, start first; empty if there was none.
+     */
+    int[] getPathCells() {
+        return pathCells;
+    }
+    
+    private boolean aStar(SearchScratch scratch, int goal) {
+        scratch.begin(rows * cols);
+        int start = startRow * cols + startCol;
         
-        if (current.row == exitRow && current.col == exitCol) {
-            reconstructPath(current);
-            return true;
-        }
-
-        int[][] directions = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
-
-        List<Node> neighbors = new ArrayList<>();
+        scratch.markSeen(start);
+        scratch.g[start] = 0;
+        scratch.f[start] = calculateHeuristic(startRow, startCol);
+        scratch.parent[start] = -1;
+        scratch.push(start);
         
-        for (int[] dir : directions) {
-            int newRow = current.row + dir[0];
-            int newCol = current.col + dir[1];
+        while (!scratch.isHeapEmpty()) {
+            int current = scratch.pop();
+            scratch.recordExpanded(current);
+            if (listener != null) {
+                listener.onExpand(current);
+            }
             
-            if (isValidMove(newRow, newCol) && !visited[newRow][newCol]) {
-                Node neighbor = new Node(newRow, newCol);
-                neighbor.parent = current;
-                neighbor.h = calculateHeuristic(newRow, newCol);
-                neighbors.add(neighbor);
+            if (current == goal) {
+                return true;
+            }
+            
+            int row = current / cols;
+            int col = current - row * cols;
+            int nextG = scratch.g[current] + 1;
+            
+            for (int d = 0; d < 4; d++) {
+                int newRow = row + DR[d];
+                int newCol = col + DC[d];
+                
+                if (!isValidMove(newRow, newCol)) {
+                    continue;
+                }
+                
+                int neighbor = newRow * cols + newCol;
+                if (!scratch.isSeen(neighbor)) {
+                    scratch.markSeen(neighbor);
+                }
+                else if (!scratch.isOpen(neighbor) || nextG >= scratch.g[neighbor]) {
+                    // Closed, or already queued with a path at least as short.
+                    continue;
+                }
+                
+                scratch.g[neighbor] = nextG;
+                scratch.f[neighbor] = nextG + calculateHeuristic(newRow, newCol);
+                scratch.parent[neighbor] = current;
+                scratch.push(neighbor);
+                if (listener != null) {
+                    listener.onEnqueue(neighbor);
+                }
             }
         }
 
-        Collections.sort(neighbors, (n1, n2) -> Integer.compare(n1.h, n2.h));
-
-        for (Node neighbor : neighbors) {
-            if (hillClimbingWithBacktracking(neighbor)) {
+        return false;
+    }
+    
+    /**
+     * A* whose successors are jump points. Horizontal jumps stop at the goal or
+     * at a forced neighbour (an opening above or below whose cell behind is a
+     * wall). Vertical jumps also stop wherever a horizontal jump would find
+     * something, so turns are only ever taken at jump points.
+     */
+    private boolean jumpPointSearch(SearchScratch scratch, int goal) {
+        scratch.begin(rows * cols);
+        int start = startRow * cols + startCol;
+        
+        scratch.markSeen(start);
+        scratch.g[start] = 0;
+        scratch.f[start] = calculateHeuristic(startRow, startCol);
+        scratch.parent[start] = -1;
+        scratch.push(start);
+        
+        while (!scratch.isHeapEmpty()) {
+            int current = scratch.pop();
+            scratch.recordExpanded(current);
+            if (listener != null) {
+                listener.onExpand(current);
+            }
+            
+            if (current == goal) {
                 return true;
             }
+            
+            int row = current / cols;
+            int col = current - row * cols;
+            int parent = scratch.parent[current];
+            
+            for (int d = 0; d < 4; d++) {
+                // Going straight back to the parent can never help.
+                if (parent >= 0 && parent == current + (DR[d] * cols + DC[d]) * distanceTo(parent, row, col)) {
+                    continue;
+                }
+                
+                int jump = DR[d] != 0 ? jumpVertical(row, col, DR[d]) : jumpHorizontal(row, col, DC[d]);
+                if (jump < 0) {
+                    continue;
+                }
+                
+                int jumpRow = jump / cols;
+                int jumpCol = jump - jumpRow * cols;
+                int nextG = scratch.g[current] + Math.abs(jumpRow - row) + Math.abs(jumpCol - col);
+                
+                if (!scratch.isSeen(jump)) {
+                    scratch.markSeen(jump);
+                }
+                else if (!scratch.isOpen(jump) || nextG >= scratch.g[jump]) {
+                    continue;
+                }
+                
+                scratch.g[jump] = nextG;
+                scratch.f[jump] = nextG + calculateHeuristic(jumpRow, jumpCol);
+                scratch.parent[jump] = current;
+                scratch.push(jump);
+                if (listener != null) {
+                    listener.onEnqueue(jump);
+                }
+            }
         }
-
+        
         return false;
     }
     
+    /**
+     * Level-by-level BFS from both ends, always growing the smaller frontier.
+     * A level is finished before stopping, so the best meeting edge found in
+     * it gives a shortest path. Forward distances and parents go in g/parent,
+     * with scratch.explored as the forward queue; the backward side keeps
+     * only its distance marks and walks them down to the goal at the end.
+     */
+    private boolean bidirectionalSearch(SearchScratch scratch, int goal) {
+        scratch.beginBidirectional(rows * cols);
+        int start = startRow * cols + startCol;
+        int[] forward = scratch.explored;
+        int[] backward = scratch.backwardQueue;
+        
+        scratch.markReached(start);
+        scratch.g[start] = 0;
+        scratch.parent[start] = -1;
+        forward[0] = start;
+        int forwardHead = 0, forwardTail = 1;
+        
+        scratch.markSeenBackward(goal, 0);
+        backward[0] = goal;
+        int backwardHead = 0, backwardTail = 1;
+        
+        int bestLength = Integer.MAX_VALUE;
+        int meetForward = -1, meetBackward = -1;
+        if (start == goal) {
+            bestLength = 0;
+            meetForward = start;
+            meetBackward = goal;
+        }
+        
+        while (bestLength == Integer.MAX_VALUE && forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean growForward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int[] queue = growForward ? forward : backward;
+            int head = growForward ? forwardHead : backwardHead;
+            int tail = growForward ? forwardTail : backwardTail;
+            int levelEnd = tail;
+            
+            while (head < levelEnd) {
+                int current = queue[head++];
+                int distance = growForward ? scratch.g[current] : scratch.backwardDistance(current);
+                if (listener != null) {
+                    listener.onExpand(current);
+                }
+                
+                int row = current / cols;
+                int col = current - row * cols;
+                for (int d = 0; d < 4; d++) {
+                    int newRow = row + DR[d];
+                    int newCol = col + DC[d];
+                    if (!isValidMove(newRow, newCol)) {
+                        continue;
+                    }
+                    
+                    int neighbor = newRow * cols + newCol;
+                    boolean seenHere = growForward ? scratch.isSeen(neighbor) : scratch.isSeenBackward(neighbor);
+                    boolean seenThere = growForward ? scratch.isSeenBackward(neighbor) : scratch.isSeen(neighbor);
+                    
+                    if (seenThere) {
+                        int length = distance + 1 + (growForward
+                                ? scratch.backwardDistance(neighbor) : scratch.g[neighbor]);
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meetForward = growForward ? current : neighbor;
+                            meetBackward = growForward ? neighbor : current;
+                        }
+                    }
+                    if (seenHere) {
+                        continue;
+                    }
+                    
+                    if (growForward) {
+                        scratch.markReached(neighbor);
+                        scratch.g[neighbor] = distance + 1;
+                        scratch.parent[neighbor] = current;
+                    }
+                    else {
+                        scratch.markSeenBackward(neighbor, distance + 1);
+                    }
+                    queue[tail++] = neighbor;
+                    if (listener != null) {
+                        listener.onEnqueue(neighbor);
+                    }
+                }
+            }
+            
+            if (growForward) {
+                forwardHead = head;
+                forwardTail = tail;
+            }
+            else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+        }
+        
+        // The forward queue already starts with the cells it expanded. No cell
+        // is expanded from both sides, so the backward ones fit after them.
+        System.arraycopy(backward, 0, scratch.explored, forwardHead, backwardHead);
+        scratch.exploredCount = forwardHead + backwardHead;
+        backwardExpanded = backwardHead;
+        
+        if (meetForward < 0) {
+            return false;
+        }
+        
+        pathCells = new int[bestLength + 1];
+        int i = scratch.g[meetForward];
+        for (int cell = meetForward; cell >= 0; cell = scratch.parent[cell]) {
+            pathCells[i--] = cell;
+        }
+        i = scratch.g[meetForward] + (meetForward == meetBackward ? 0 : 1);
+        for (int cell = meetBackward; ; cell = downhillBackward(scratch, cell)) {
+            pathCells[i++] = cell;
+            if (cell == goal) {
+                break;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * A neighbour one step closer to the goal in the backward search.
+     */
+    private int downhillBackward(SearchScratch scratch, int cell) {
+        int row = cell / cols;
+        int col = cell - row * cols;
+        int distance = scratch.backwardDistance(cell);
+        for (int d = 0; d < 4; d++) {
+            int newRow = row + DR[d];
+            int newCol = col + DC[d];
+            int neighbor = newRow * cols + newCol;
+            if (isValidMove(newRow, newCol) && scratch.isSeenBackward(neighbor)
+                    && scratch.backwardDistance(neighbor) == distance - 1) {
+                return neighbor;
+            }
+        }
+        throw new IllegalStateException("broken backward search at cell " + cell);
+    }
+    
+    private int distanceTo(int cell, int row, int col) {
+        int cellRow = cell / cols;
+        return Math.abs(cellRow - row) + Math.abs(cell - cellRow * cols - col);
+    }
+    
+    private int jumpHorizontal(int row, int col, int dc) {
+        while (true) {
+            col += dc;
+            if (!grid.isWalkable(row, col)) {
+                return -1;
+            }
+            if (row == exitRow && col == exitCol) {
+                return row * cols + col;
+            }
+            if ((grid.isWalkable(row - 1, col) && !grid.isWalkable(row - 1, col - dc))
+                    || (grid.isWalkable(row + 1, col) && !grid.isWalkable(row + 1, col - dc))) {
+                return row * cols + col;
+            }
+        }
+    }
+    
+    private int jumpVertical(int row, int col, int dr) {
+        while (true) {
+            row += dr;
+            if (!grid.isWalkable(row, col)) {
+                return -1;
+            }
+            if (row == exitRow && col == exitCol) {
+                return row * cols + col;
+            }
+            if ((grid.isWalkable(row, col - 1) && !grid.isWalkable(row - dr, col - 1))
+                    || (grid.isWalkable(row, col + 1) && !grid.isWalkable(row - dr, col + 1))) {
+                return row * cols + col;
+            }
+            if (jumpHorizontal(row, col, 1) >= 0 || jumpHorizontal(row, col, -1) >= 0) {
+                return row * cols + col;
+            }
+        }
+    }
+    
     private int calculateHeuristic(int row, int col) {
         return Math.abs(row - exitRow) + Math.abs(col - exitCol);
     }
     
     private boolean isValidMove(int row, int col) {
-        return row >= 0 && row < rows && col >= 0 && col < cols && grid[row][col] == 1;
+        return grid.isWalkable(row, col);
     }
 
-    private void reconstructPath(Node endNode) {
-        path.clear();
-        Node current = endNode;
+    private void reconstructPath(SearchScratch scratch, int goal) {
+        int length = scratch.g[goal] + 1;
+        pathCells = new int[length];
         
-        while (current != null) {
-            path.add(current);
-            current = current.parent;
+        // Parents may be a straight run of cells away (JPS), so fill each run in.
+        int i = length - 1;
+        int cell = goal;
+        pathCells[i] = cell;
+        while (scratch.parent[cell] >= 0) {
+            int previous = scratch.parent[cell];
+            int step = previous / cols == cell / cols
+                    ? Integer.signum(cell - previous)
+                    : Integer.signum(cell - previous) * cols;
+            for (int between = cell - step; i > 0; between -= step) {
+                pathCells[--i] = between;
+                if (between == previous) {
+                    break;
+                }
+            }
+            cell = previous;
+        }
+    }
+    
+    private void buildPathNodes() {
+        Node previous = null;
+        for (int pathCell : pathCells) {
+            Node node = new Node(pathCell / cols, pathCell % cols);
+            node.parent = previous;
+            node.h = calculateHeuristic(node.row, node.col);
+            path.add(node);
+            previous = node;
+        }
+    }
+
+    /**
+     * Reports the cells a search outside this class expanded, after the fact.
+     */
+    private void replayExpanded(SearchScratch scratch) {
+        if (listener != null) {
+            for (int i = 0; i < scratch.exploredCount; i++) {
+                listener.onExpand(scratch.explored[i]);
+            }
+        }
+    }
+    
+    private void recordExplored(SearchScratch scratch) {
+        expandedCount = scratch.exploredCount;
+        if (expandedCount == 0 || !keepExplored) {
+            return;
+        }
+        exploredBits = new long[(rows * cols + 63) >>> 6];
+        for (int i = 0; i < expandedCount; i++) {
+            int cell = scratch.explored[i];
+            exploredBits[cell >>> 6] |= 1L << cell;
         }
-        
-        Collections.reverse(path);
     }
 
     private void resetSearch() {
         path.clear();
-        exploredNodes.clear();
+        backwardExpanded = 0;
+        expandedCount = 0;
+        exploredBits = new long[0];
+        pathCells = new int[0];
     }
     
     public void drawPathHighlights(Graphics g, int cellSize) {
         // Draw explored nodes (light blue)
         g.setColor(new Color(173, 216, 230, 128));
-        for (Node node : exploredNodes) {
-            // Skip start and target positions
-            if ((node.row != startRow || node.col != startCol) && 
-                (node.row != exitRow || node.col != exitCol)) {
-                g.fillRect(node.col * cellSize, node.row * cellSize, cellSize, cellSize);
-            }
-        }
+        fillBits(g, exploredBits, cols, cellSize, startRow * cols + startCol, exitRow * cols + exitCol);
         
         // Draw optimal path (yellow)
         g.setColor(new Color(255, 255, 0, 180));
-        for (Node node : path) {
+        fillCells(g, pathCells, cellSize);
+    }
+    
+    /**
+     * Fills the cells set in a flat cell bitset, except the two skipped ones.
+     * Only the words covering the rows inside the clip are read, so a small
+     * repaint costs little however big the maze is.
+     */
+    static void fillBits(Graphics g, long[] cellBits, int cols, int cellSize, int skipA, int skipB) {
+        int fromWord = 0;
+        int toWord = cellBits.length;
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            int firstRow = Math.max(0, clip.y / cellSize);
+            int lastRow = (clip.y + clip.height - 1) / cellSize;
+            fromWord = Math.min(toWord, (firstRow * cols) >>> 6);
+            toWord = Math.min(toWord, (int) (((long) (lastRow + 1) * cols + 63) >>> 6));
+        }
+        
+        for (int w = fromWord; w < toWord; w++) {
+            for (long bits = cellBits[w]; bits != 0; bits &= bits - 1) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (cell != skipA && cell != skipB) {
+                    g.fillRect((cell % cols) * cellSize, (cell / cols) * cellSize, cellSize, cellSize);
+                }
+            }
+        }
+    }
+    
+    private void fillCells(Graphics g, int[] cells, int cellSize) {
+        int start = startRow * cols + startCol;
+        int exit = exitRow * cols + exitCol;
+        
+        for (int cell : cells) {
             // Skip start and target positions to avoid covering them
-            if ((node.row != startRow || node.col != startCol) && 
-                (node.row != exitRow || node.col != exitCol)) {
-                g.fillRect(node.col * cellSize, node.row * cellSize, cellSize, cellSize);
+            if (cell != start && cell != exit) {
+                g.fillRect((cell % cols) * cellSize, (cell / cols) * cellSize, cellSize, cellSize);
             }
         }
     }
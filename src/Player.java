@@ -1,32 +1,52 @@
 public class Player {
     private int row;
     private int col;
-    private String currentDirection;
+    private Direction currentDirection;
+    
+    /**
+     * Facing of the player. The ordinal indexes the preloaded sprites in
+     * TileAssets, so drawing needs no lookups or strings.
+     */
+    public enum Direction {
+        UP(-1, 0, "images/kup.png"),
+        DOWN(1, 0, "images/kdown.png"),
+        LEFT(0, -1, "images/kleft.png"),
+        RIGHT(0, 1, "images/kright.png");
+        
+        final int dr, dc;
+        final String imagePath;
+        
+        Direction(int dr, int dc, String imagePath) {
+            this.dr = dr;
+            this.dc = dc;
+            this.imagePath = imagePath;
+        }
+        
+        public int getRowStep() {
+            return dr;
+        }
+        
+        public int getColStep() {
+            return dc;
+        }
+    }
     
     public Player(int startRow, int startCol) {
+        this(startRow, startCol, Direction.RIGHT);
+    }
+    
+    public Player(int startRow, int startCol, Direction facing) {
         this.row = startRow;
         this.col = startCol;
-        this.currentDirection = "right";
+        this.currentDirection = facing;
     }
     
-    public void move(String direction, int maxRow, int maxCol) {
+    public void move(Direction direction, int maxRow, int maxCol) {
         this.currentDirection = direction;
         // Note: The movement validation should be done in GameJFrame
         // This method only updates the direction and position
-        switch (direction) {
-            case "up":
-                row--;
-                break;
-            case "down":
-                row++;
-                break;
-            case "left":
-                col--;
-                break;
-            case "right":
-                col++;
-                break;
-        }
+        row += direction.dr;
+        col += direction.dc;
     }
     
     public int getRow() { 
@@ -37,11 +57,11 @@ public class Player {
         return col; 
     }
     
-    public String getCurrentDirection() { 
+    public Direction getCurrentDirection() { 
         return currentDirection; 
     }
     
     public String getCurrentImagePath() {
-        return "images/k" + currentDirection + ".png";
+        return currentDirection.imagePath;
     }
 }
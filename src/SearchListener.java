@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Receives PathFinder's search events as they happen, e.g. to animate a
+ * search or count work. Cells are flat indices (row * cols + col).
+ * 
+ * Nothing is reported unless a listener is set, and a search without one
+ * does no extra work.
+ *
+ * @author 11a5h
+ */
+public interface SearchListener {
+    
+    /**
+     * A cell was taken off the frontier and its neighbours looked at.
+     */
+    default void onExpand(int cell) {
+    }
+    
+    /**
+     * A cell was added to the frontier, or its queued cost improved. Not
+     * reported in EXIT_FIELD, JUNCTIONS and HIERARCHICAL modes.
+     */
+    default void onEnqueue(int cell) {
+    }
+    
+    /**
+     * The search finished with a path, start and exit included.
+     */
+    default void onFound(int[] path) {
+    }
+}
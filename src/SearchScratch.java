@@ -0,0 +1,207 @@
+import java.util.Arrays;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Reusable per-thread buffers for grid searches: g-scores, f-scores and
+ * parents indexed by flat cell, plus an indexed binary min-heap of cells.
+ * Entries are only valid for the current search id, so nothing has to be
+ * cleared between searches.
+ *
+ * @author 11a5h
+ */
+public class SearchScratch {
+    private static final ThreadLocal<SearchScratch> CURRENT = ThreadLocal.withInitial(SearchScratch::new);
+    
+    int[] g = new int[0];
+    int[] f = new int[0];
+    int[] parent = new int[0];
+    int[] explored = new int[0];
+    int exploredCount;
+    
+    // Only allocated once a bidirectional search runs on this thread. A
+    // backward mark is backBase plus the cell's distance to the goal, so no
+    // separate distance or parent array is needed. Each search moves backBase
+    // past every mark the last one could have left, even if begin() has
+    // reset searchId since.
+    int[] backwardQueue = new int[0];
+    private int[] backMark = new int[0];
+    private int backBase;
+    private int backNext = 1;
+    
+    private int[] stamp = new int[0];
+    private int[] heap = new int[0];
+    private int[] heapPos = new int[0];
+    private int heapSize;
+    private int searchId;
+    
+    public static SearchScratch forCurrentThread() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Starts a new search over the given number of cells.
+     */
+    void begin(int cells) {
+        if (heap.length < cells) {
+            f = new int[cells];
+            heap = new int[cells];
+            heapPos = new int[cells];
+        }
+        beginBreadthFirst(cells);
+        heapSize = 0;
+    }
+    
+    /**
+     * Starts a breadth-first search, which only needs g, parent, explored and
+     * the seen marks; f and the heap are left unallocated.
+     */
+    void beginBreadthFirst(int cells) {
+        if (stamp.length < cells) {
+            g = new int[cells];
+            parent = new int[cells];
+            explored = new int[cells];
+            stamp = new int[cells];
+            searchId = 0;
+        }
+        if (++searchId == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            searchId = 1;
+        }
+        exploredCount = 0;
+    }
+    
+    /**
+     * Starts a search from both ends: the forward side is a breadth-first
+     * search, the backward side only adds its marks and queue.
+     */
+    void beginBidirectional(int cells) {
+        beginBreadthFirst(cells);
+        if (backMark.length < cells) {
+            backMark = new int[cells];
+            backwardQueue = new int[cells];
+            backNext = 1;
+        }
+        if (backNext > Integer.MAX_VALUE - cells) {
+            Arrays.fill(backMark, 0);
+            backNext = 1;
+        }
+        backBase = backNext;
+        backNext = backBase + cells;
+    }
+    
+    boolean isSeenBackward(int cell) {
+        return backMark[cell] >= backBase;
+    }
+    
+    /**
+     * Steps from the cell to the goal; only valid if isSeenBackward(cell).
+     */
+    int backwardDistance(int cell) {
+        return backMark[cell] - backBase;
+    }
+    
+    void markSeenBackward(int cell, int distance) {
+        backMark[cell] = backBase + distance;
+    }
+    
+    boolean isSeen(int cell) {
+        return stamp[cell] == searchId;
+    }
+    
+    /**
+     * Marks a cell as reached in a breadth-first search.
+     */
+    void markReached(int cell) {
+        stamp[cell] = searchId;
+    }
+    
+    /**
+     * Marks a cell as reached in this search. heapPos -1 means closed.
+     */
+    void markSeen(int cell) {
+        stamp[cell] = searchId;
+        heapPos[cell] = -1;
+    }
+    
+    boolean isOpen(int cell) {
+        return heapPos[cell] >= 0;
+    }
+    
+    void recordExpanded(int cell) {
+        explored[exploredCount++] = cell;
+    }
+    
+    boolean isHeapEmpty() {
+        return heapSize == 0;
+    }
+    
+    /**
+     * Inserts the cell, or moves it up if it is already queued with a worse key.
+     */
+    void push(int cell) {
+        int pos = heapPos[cell];
+        if (pos < 0) {
+            pos = heapSize++;
+            heap[pos] = cell;
+            heapPos[cell] = pos;
+        }
+        siftUp(pos);
+    }
+    
+    int pop() {
+        int top = heap[0];
+        heapPos[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+    
+    private boolean less(int a, int b) {
+        // Ties on f go to the deeper cell, which keeps A* moving toward the goal.
+        return f[a] < f[b] || (f[a] == f[b] && g[a] > g[b]);
+    }
+    
+    private void siftUp(int pos) {
+        int cell = heap[pos];
+        while (pos > 0) {
+            int up = (pos - 1) >>> 1;
+            int other = heap[up];
+            if (!less(cell, other)) {
+                break;
+            }
+            heap[pos] = other;
+            heapPos[other] = pos;
+            pos = up;
+        }
+        heap[pos] = cell;
+        heapPos[cell] = pos;
+    }
+    
+    private void siftDown(int pos) {
+        int cell = heap[pos];
+        int half = heapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            int other = heap[child];
+            if (!less(other, cell)) {
+                break;
+            }
+            heap[pos] = other;
+            heapPos[other] = pos;
+            pos = child;
+        }
+        heap[pos] = cell;
+        heapPos[cell] = pos;
+    }
+}
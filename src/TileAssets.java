@@ -0,0 +1,127 @@
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import javax.swing.ImageIcon;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Process-wide image registry. Every image is decoded once, on first use of
+ * get(), and shared by every maze after that. Tiles are picked per cell from
+ * the maze's walkability, so MazeGenerator itself needs no images.
+ *
+ * @author 11a5h
+ */
+public final class TileAssets {
+    private static final String WALL_IMG_PATH = "images/wall.png";
+    private static final String FLOOR_IMG_PATH = "images/floor.png";
+    private static final String EXIT_IMG_PATH = "images/DoorWin.png";
+    private static final String COIN_IMG_PATH = "images/coin.png";
+    
+    private static TileAssets instance;
+    
+    private final Image wallImg;
+    private final Image floorImg;
+    private final Image exitImg;
+    private final Image coinImg;
+    
+    // Player sprites by Direction ordinal, as decoded and scaled to scaledSize.
+    private final Image[] playerImgs;
+    private final BufferedImage[] scaledPlayerImgs;
+    private int scaledSize;
+    
+    private TileAssets() throws IOException {
+        wallImg = load(WALL_IMG_PATH);
+        floorImg = load(FLOOR_IMG_PATH);
+        exitImg = load(EXIT_IMG_PATH);
+        coinImg = load(COIN_IMG_PATH);
+        
+        Player.Direction[] directions = Player.Direction.values();
+        playerImgs = new Image[directions.length];
+        scaledPlayerImgs = new BufferedImage[directions.length];
+        for (Player.Direction direction : directions) {
+            playerImgs[direction.ordinal()] = load(direction.imagePath);
+        }
+    }
+    
+    public static synchronized TileAssets get() throws IOException {
+        if (instance == null) {
+            instance = new TileAssets();
+        }
+        return instance;
+    }
+    
+    /**
+     * Image for one cell, or null for the start cell, which has no tile of its own.
+     */
+    public Image getTile(MazeGenerator maze, int row, int col) {
+        if (row == maze.getStartRow() && col == maze.getStartCol()) {
+            return null;
+        }
+        if (row == maze.getExitRow() && col == maze.getExitCol()) {
+            return exitImg;
+        }
+        return maze.getGrid().isWalkable(row, col) ? floorImg : wallImg;
+    }
+    
+    /**
+     * Draws every tile of the maze at the given cell size.
+     */
+    public void paintMaze(Graphics g, MazeGenerator maze, int cellSize) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Image tile = getTile(maze, r, c);
+                if (tile != null) {
+                    g.drawImage(tile, c * cellSize, r * cellSize, cellSize, cellSize, null);
+                }
+            }
+        }
+    }
+    
+    public Image getCoin() {
+        return coinImg;
+    }
+    
+    /**
+     * Player sprite for a direction, already cellSize pixels square so it can
+     * be drawn unscaled. All four are rescaled together when the cell size
+     * changes; otherwise this only reads an array.
+     */
+    public Image getPlayerSprite(Player.Direction direction, int cellSize) {
+        if (cellSize != scaledSize) {
+            for (int i = 0; i < playerImgs.length; i++) {
+                scaledPlayerImgs[i] = scale(playerImgs[i], cellSize);
+            }
+            scaledSize = cellSize;
+        }
+        return scaledPlayerImgs[direction.ordinal()];
+    }
+    
+    private static BufferedImage scale(Image image, int size) {
+        BufferedImage scaled = new BufferedImage(Math.max(1, size), Math.max(1, size), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, size, size, null);
+        g.dispose();
+        return scaled;
+    }
+    
+    static Image load(String path) throws IOException {
+        URL url = TileAssets.class.getClassLoader().getResource(path);
+        if (url == null) {
+            throw new IOException("Không thể đọc file hình ảnh: " + path);
+        }
+        // ImageIcon waits for the image to finish loading, so it is decoded here.
+        return new ImageIcon(url).getImage();
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Batches solved on platform and virtual threads against one PathFinder per
+ * query.
+ *
+ * @author 11a5h
+ */
+public class BatchPathSolverTest {
+    private static final int SIZE = 101;
+    private static final int QUERIES = 300;
+
+    @Test
+    public void fixedPoolMatchesSingleSearches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            checkBatch(executor, 4);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void virtualThreadsMatchSingleSearches() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            checkBatch(executor, 8);
+        }
+    }
+
+    private static void checkBatch(ExecutorService executor, int workers) throws Exception {
+        MazeGenerator maze = new MazeGenerator(SIZE, SIZE, 5L, MazeGenerator.Algorithm.DFS);
+        PathFinderTest.openWalls(maze, SIZE * SIZE / 50, new SplittableRandom(6));
+        List<Integer> open = PathFinderTest.walkableCells(maze.getGrid());
+        SplittableRandom random = new SplittableRandom(7);
+
+        List<BatchPathSolver.Query> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            int start = open.get(random.nextInt(open.size()));
+            int goal = open.get(random.nextInt(open.size()));
+            queries.add(new BatchPathSolver.Query(start / SIZE, start % SIZE, goal / SIZE, goal % SIZE));
+        }
+
+        for (PathFinder.Mode mode : new PathFinder.Mode[]{PathFinder.Mode.ASTAR, PathFinder.Mode.BIDIRECTIONAL}) {
+            BatchPathSolver solver = new BatchPathSolver(maze);
+            solver.setMode(mode);
+            // Twice, so the second batch runs on scratch left by the first.
+            for (int round = 0; round < 2; round++) {
+                BatchPathSolver.Result result = solver.solve(queries, executor, workers);
+                assertEquals(QUERIES, result.size());
+
+                long expanded = 0;
+                for (int i = 0; i < QUERIES; i++) {
+                    BatchPathSolver.Query query = queries.get(i);
+                    PathFinder finder = new PathFinder(maze, query.startRow, query.startCol, query.goalRow, query.goalCol);
+                    finder.setMode(mode);
+                    finder.search(new SearchScratch());
+                    assertArrayEquals(mode + " query " + i, finder.getPathCells(), result.getPath(i));
+                    expanded += finder.getExpandedCount();
+                }
+                assertEquals(QUERIES, result.getSolvedCount());
+                assertEquals(expanded, result.getExpandedCount());
+            }
+        }
+    }
+}
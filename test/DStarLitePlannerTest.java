@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * D* Lite repairs against a fresh BFS while cells open and close and the
+ * player moves.
+ *
+ * @author 11a5h
+ */
+public class DStarLitePlannerTest {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    @Test
+    public void repairedPathsMatchBfs() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            MazeGenerator maze = new MazeGenerator(41, 41, 21L, algorithm);
+            PathFinderTest.openWalls(maze, 40, new SplittableRandom(22));
+            MazeGrid grid = maze.getGrid();
+            int cols = grid.getCols();
+            int goal = maze.getExitRow() * cols + maze.getExitCol();
+            int start = maze.getStartRow() * cols + maze.getStartCol();
+
+            DStarLitePlanner planner = new DStarLitePlanner(grid, start / cols, start % cols, goal / cols, goal % cols);
+            maze.addChangeListener(planner);
+            SplittableRandom random = new SplittableRandom(23);
+
+            for (int step = 0; step < 400; step++) {
+                int row = 1 + random.nextInt(grid.getRows() - 2);
+                int col = 1 + random.nextInt(cols - 2);
+                maze.setWalkable(row, col, !grid.isWalkable(row, col));
+
+                int[] path = planner.getPath();
+                if (step % 3 == 0 && path.length > 1) {
+                    // The player walks a few steps along the hint.
+                    start = path[Math.min(path.length - 1, 1 + random.nextInt(5))];
+                    planner.moveStart(start / cols, start % cols);
+                    path = planner.getPath();
+                }
+
+                String change = algorithm + " step " + step + " (" + row + "," + col + ")";
+                int distance = grid.isWalkable(start / cols, start % cols)
+                        ? PathFinderTest.bfsDistance(grid, start, goal) : -1;
+                assertEquals(change, distance, planner.getDistance());
+                assertEquals(change, distance + 1, path.length);
+                if (distance >= 0) {
+                    assertWalk(change, grid, path, start, goal);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void distantWallChangeExpandsFewCells() {
+        MazeGenerator maze = new MazeGenerator(201, 201, 31L, MazeGenerator.Algorithm.DFS);
+        MazeGrid grid = maze.getGrid();
+        int cols = grid.getCols();
+        int start = maze.getStartRow() * cols + maze.getStartCol();
+        int goal = maze.getExitRow() * cols + maze.getExitCol();
+
+        DStarLitePlanner planner = new DStarLitePlanner(grid, start / cols, start % cols, goal / cols, goal % cols);
+        maze.addChangeListener(planner);
+        int[] path = planner.getPath();
+        int freshPlan = planner.getLastExpandedCount();
+        assertTrue(path.length > 0);
+
+        // The dead end farthest from the start, counted as detour from the route.
+        boolean[] onPath = new boolean[grid.getRows() * cols];
+        for (int cell : path) {
+            onPath[cell] = true;
+        }
+        int[] fromStart = distancesFrom(grid, start);
+        int[] fromGoal = distancesFrom(grid, goal);
+        int deadEnd = -1, farthest = -1;
+        for (int cell : PathFinderTest.walkableCells(grid)) {
+            int row = cell / cols, col = cell % cols;
+            int exits = 0;
+            for (int d = 0; d < 4; d++) {
+                if (grid.isWalkable(row + DR[d], col + DC[d])) {
+                    exits++;
+                }
+            }
+            int detour = fromStart[cell] + fromGoal[cell];
+            if (exits == 1 && !onPath[cell] && detour > farthest) {
+                deadEnd = cell;
+                farthest = detour;
+            }
+        }
+
+        maze.setWalkable(deadEnd / cols, deadEnd % cols, false);
+        int[] repaired = planner.getPath();
+        assertEquals(path.length, repaired.length);
+        assertTrue("repair expanded " + planner.getLastExpandedCount() + " of " + freshPlan,
+                planner.getLastExpandedCount() * 50 < freshPlan);
+    }
+
+    private static int[] distancesFrom(MazeGrid grid, int source) {
+        int cols = grid.getCols();
+        int[] dist = new int[grid.getRows() * cols];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[dist.length];
+        int head = 0, tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / cols, col = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int next = (row + DR[d]) * cols + col + DC[d];
+                if (grid.isWalkable(row + DR[d], col + DC[d]) && dist[next] < 0) {
+                    dist[next] = dist[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static void assertWalk(String change, MazeGrid grid, int[] path, int start, int goal) {
+        int cols = grid.getCols();
+        assertEquals(change, start, path[0]);
+        assertEquals(change, goal, path[path.length - 1]);
+        for (int i = 0; i < path.length; i++) {
+            assertTrue(change, grid.isWalkable(path[i] / cols, path[i] % cols));
+            if (i > 0) {
+                int step = Math.abs(path[i] / cols - path[i - 1] / cols) + Math.abs(path[i] % cols - path[i - 1] % cols);
+                assertEquals(change, 1, step);
+            }
+        }
+    }
+}
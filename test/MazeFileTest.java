@@ -0,0 +1,130 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Level files and packs written and read back, and damaged copies of them.
+ *
+ * @author 11a5h
+ */
+public class MazeFileTest {
+
+    @Test
+    public void packRoundTripKeepsEveryLevel() throws IOException {
+        List<Level> levels = levels();
+        Path dir = Files.createTempDirectory("maze-file-test");
+        Path pack = dir.resolve("pack.bin");
+        Path single = dir.resolve("level.bin");
+        try {
+            MazeFile.writePack(pack, levels);
+            assertEquals(levels.size(), MazeFile.readPackSize(pack));
+            for (int i = 0; i < levels.size(); i++) {
+                assertSameLevel(levels.get(i), MazeFile.readPackLevel(pack, i));
+            }
+
+            MazeFile.writeLevel(single, levels.get(1));
+            assertSameLevel(levels.get(1), MazeFile.readLevel(single));
+        } finally {
+            Files.deleteIfExists(pack);
+            Files.deleteIfExists(single);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void damagedFilesOnlyThrowIOException() throws IOException {
+        List<Level> levels = levels();
+        Path dir = Files.createTempDirectory("maze-file-test");
+        Path pack = dir.resolve("pack.bin");
+        Path single = dir.resolve("level.bin");
+        Path damaged = dir.resolve("damaged.bin");
+        try {
+            MazeFile.writePack(pack, levels);
+            MazeFile.writeLevel(single, levels.get(0));
+            byte[] packBytes = Files.readAllBytes(pack);
+            byte[] singleBytes = Files.readAllBytes(single);
+
+            SplittableRandom random = new SplittableRandom(9);
+            for (int attempt = 0; attempt < 3000; attempt++) {
+                boolean isPack = random.nextBoolean();
+                byte[] bytes = damage(isPack ? packBytes : singleBytes, random);
+                Files.write(damaged, bytes);
+                try {
+                    if (isPack) {
+                        MazeFile.readPackLevel(damaged, random.nextInt(levels.size()));
+                    }
+                    else {
+                        MazeFile.readLevel(damaged);
+                    }
+                } catch (IOException expected) {
+                    // Rejected; anything else thrown fails the test.
+                } catch (RuntimeException | OutOfMemoryError ex) {
+                    fail("attempt " + attempt + ": " + ex);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(pack);
+            Files.deleteIfExists(single);
+            Files.deleteIfExists(damaged);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Truncates the file, or overwrites a few bytes; most headers and
+     * offsets sit in the first 128 bytes, so half the writes land there.
+     */
+    private static byte[] damage(byte[] original, SplittableRandom random) {
+        if (random.nextInt(3) == 0) {
+            return Arrays.copyOf(original, random.nextInt(original.length));
+        }
+        byte[] bytes = original.clone();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            int at = random.nextBoolean()
+                    ? random.nextInt(Math.min(128, bytes.length))
+                    : random.nextInt(bytes.length);
+            bytes[at] = (byte) random.nextInt(256);
+        }
+        return bytes;
+    }
+
+    private static List<Level> levels() {
+        List<Level> levels = new ArrayList<>();
+        MazeGenerator.Algorithm[] algorithms = MazeGenerator.Algorithm.values();
+        for (int i = 0; i < algorithms.length; i++) {
+            MazeGenerator maze = new MazeGenerator(25 + 10 * i, 31 + 4 * i, 40L + i, algorithms[i]);
+            levels.add(new Level(i + 1, maze, Level.placeCollectibles(maze, 4 + i), 0));
+        }
+        return levels;
+    }
+
+    private static void assertSameLevel(Level expected, Level actual) {
+        MazeGenerator want = expected.getMaze();
+        MazeGenerator got = actual.getMaze();
+        assertEquals(expected.getNumber(), actual.getNumber());
+        assertEquals(want.getRows(), got.getRows());
+        assertEquals(want.getCols(), got.getCols());
+        assertEquals(want.getStartRow(), got.getStartRow());
+        assertEquals(want.getStartCol(), got.getStartCol());
+        assertEquals(want.getExitRow(), got.getExitRow());
+        assertEquals(want.getExitCol(), got.getExitCol());
+        assertEquals(want.getSeed(), got.getSeed());
+        assertEquals(want.getAlgorithm(), got.getAlgorithm());
+        assertArrayEquals(expected.getCollectibleCells(), actual.getCollectibleCells());
+        assertArrayEquals(want.getGrid().words(), got.getGrid().words());
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Every PathFinder mode against a plain BFS, on perfect mazes from each
+ * generator and on the same mazes with extra openings that create loops.
+ *
+ * @author 11a5h
+ */
+public class PathFinderTest {
+    private static final int SIZE = 61;
+    private static final int QUERIES = 150;
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    @Test
+    public void modesMatchBfsOnPerfectMazes() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            checkAllModes(new MazeGenerator(SIZE, SIZE, 11L, algorithm), new SplittableRandom(1));
+        }
+    }
+
+    @Test
+    public void modesMatchBfsOnMazesWithLoops() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            MazeGenerator maze = new MazeGenerator(SIZE, SIZE, 12L, algorithm);
+            openWalls(maze, SIZE * SIZE / 20, new SplittableRandom(2));
+            checkAllModes(maze, new SplittableRandom(3));
+        }
+    }
+
+    private static void checkAllModes(MazeGenerator maze, SplittableRandom random) {
+        MazeGrid grid = maze.getGrid();
+        List<Integer> open = walkableCells(grid);
+        SearchScratch scratch = new SearchScratch();
+
+        for (int q = 0; q < QUERIES; q++) {
+            int start = open.get(random.nextInt(open.size()));
+            // Every fourth query targets the exit, so EXIT_FIELD is used for real.
+            int goal = q % 4 == 0
+                    ? maze.getExitRow() * SIZE + maze.getExitCol()
+                    : open.get(random.nextInt(open.size()));
+            int distance = bfsDistance(grid, start, goal);
+
+            for (PathFinder.Mode mode : PathFinder.Mode.values()) {
+                PathFinder finder = new PathFinder(maze, start / SIZE, start % SIZE, goal / SIZE, goal % SIZE);
+                finder.setMode(mode);
+                String query = maze.getAlgorithm() + " " + mode + " " + start + "->" + goal;
+
+                assertEquals(query, distance >= 0, finder.search(scratch));
+                int[] path = finder.getPathCells();
+                if (distance < 0) {
+                    continue;
+                }
+                assertValidPath(query, grid, path, start, goal);
+                if (mode != PathFinder.Mode.HIERARCHICAL) {
+                    assertEquals(query, distance, path.length - 1);
+                }
+            }
+        }
+    }
+
+    private static void assertValidPath(String query, MazeGrid grid, int[] path, int start, int goal) {
+        assertTrue(query, path.length > 0);
+        assertEquals(query, start, path[0]);
+        assertEquals(query, goal, path[path.length - 1]);
+        for (int i = 0; i < path.length; i++) {
+            int row = path[i] / SIZE, col = path[i] % SIZE;
+            assertTrue(query + " wall at " + path[i], grid.isWalkable(row, col));
+            if (i > 0) {
+                int previous = path[i - 1];
+                int step = Math.abs(previous / SIZE - row) + Math.abs(previous % SIZE - col);
+                assertEquals(query + " jump at " + i, 1, step);
+            }
+        }
+    }
+
+    /**
+     * Opens random wall cells that touch at least two passages.
+     */
+    static void openWalls(MazeGenerator maze, int count, SplittableRandom random) {
+        MazeGrid grid = maze.getGrid();
+        int rows = grid.getRows(), cols = grid.getCols();
+        for (int opened = 0; opened < count; ) {
+            int row = 1 + random.nextInt(rows - 2);
+            int col = 1 + random.nextInt(cols - 2);
+            if (grid.isWalkable(row, col)) {
+                continue;
+            }
+            int passages = 0;
+            for (int d = 0; d < 4; d++) {
+                if (grid.isWalkable(row + DR[d], col + DC[d])) {
+                    passages++;
+                }
+            }
+            if (passages >= 2) {
+                maze.setWalkable(row, col, true);
+                opened++;
+            }
+        }
+    }
+
+    static List<Integer> walkableCells(MazeGrid grid) {
+        List<Integer> cells = new ArrayList<>();
+        for (int r = 0; r < grid.getRows(); r++) {
+            for (int c = 0; c < grid.getCols(); c++) {
+                if (grid.isWalkable(r, c)) {
+                    cells.add(r * grid.getCols() + c);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Steps from start to goal, or -1 if the goal cannot be reached.
+     */
+    static int bfsDistance(MazeGrid grid, int start, int goal) {
+        int cols = grid.getCols();
+        int[] dist = new int[grid.getRows() * cols];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[dist.length];
+        int head = 0, tail = 0;
+        dist[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell == goal) {
+                return dist[cell];
+            }
+            int row = cell / cols, col = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int next = (row + DR[d]) * cols + col + DC[d];
+                if (grid.isWalkable(row + DR[d], col + DC[d]) && dist[next] < 0) {
+                    dist[next] = dist[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+}
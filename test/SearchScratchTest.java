@@ -0,0 +1,59 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ * Reuse of one SearchScratch across searches of different kinds and sizes.
+ *
+ * @author 11a5h
+ */
+public class SearchScratchTest {
+    
+    /**
+     * Bidirectional searches, then a larger A* that regrows the buffers, then
+     * bidirectional searches on another maze of the first size. The backward
+     * marks left by the first searches must not be taken for new ones.
+     */
+    @Test
+    public void bidirectionalAfterRegrowIgnoresOldBackwardMarks() {
+        SearchScratch scratch = new SearchScratch();
+        SplittableRandom random = new SplittableRandom(7);
+        
+        MazeGenerator first = new MazeGenerator(41, 41, 1L, MazeGenerator.Algorithm.DFS);
+        for (int i = 0; i < 3; i++) {
+            PathFinder finder = randomQuery(first, random);
+            finder.setMode(PathFinder.Mode.BIDIRECTIONAL);
+            finder.search(scratch);
+        }
+        
+        MazeGenerator big = new MazeGenerator(201, 201, 2L, MazeGenerator.Algorithm.DFS);
+        new PathFinder(big).search(scratch);
+        
+        MazeGenerator second = new MazeGenerator(41, 41, 3L, MazeGenerator.Algorithm.DFS);
+        for (int i = 0; i < 20; i++) {
+            long seed = random.nextLong();
+            PathFinder bidirectional = randomQuery(second, new SplittableRandom(seed));
+            bidirectional.setMode(PathFinder.Mode.BIDIRECTIONAL);
+            bidirectional.search(scratch);
+            
+            PathFinder aStar = randomQuery(second, new SplittableRandom(seed));
+            aStar.search(new SearchScratch());
+            assertEquals(aStar.getPathCells().length, bidirectional.getPathCells().length);
+        }
+    }
+    
+    /**
+     * Query between two random passage cells; DFS mazes carve the even cells.
+     */
+    private static PathFinder randomQuery(MazeGenerator maze, SplittableRandom random) {
+        int half = (maze.getRows() + 1) / 2;
+        return new PathFinder(maze, 2 * random.nextInt(half), 2 * random.nextInt(half),
+                2 * random.nextInt(half), 2 * random.nextInt(half));
+    }
+}